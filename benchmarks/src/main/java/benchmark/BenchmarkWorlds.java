@@ -0,0 +1,34 @@
+package benchmark;
+
+import game.GameWorld;
+import game.ScriptedInput;
+import media.AudioLoader;
+import media.AudioManagerBorrowedCode;
+import media.ImageManager;
+import util.Settings;
+
+/**
+ * The BenchmarkWorlds class creates game worlds for the benchmarks, the same way as the headless simulation: muted, and
+ * without any loaded sprites.
+ */
+public final class BenchmarkWorlds {
+
+    private BenchmarkWorlds() {
+    }
+
+    /**
+     * create method creates a new world with the default settings. The benchmarks must be run from the project
+     * directory, where the settings file is.
+     * @return GameWorld, the world.
+     */
+    public static GameWorld create() {
+        System.setProperty("java.awt.headless", "true");
+        Settings settings = Settings.loadDefault();
+        AudioLoader audioLoader = new AudioLoader(new AudioManagerBorrowedCode());
+        audioLoader.setMuted(true);
+        final int ticksPerLap = 600;
+        final int thrustInterval = 90;
+        return new GameWorld(settings, new ImageManager(settings), audioLoader,
+                             new ScriptedInput(settings.getScreenWidth(), settings.getScreenHeight(), ticksPerLap, thrustInterval));
+    }
+}
@@ -0,0 +1,83 @@
+package entity;
+
+import benchmark.BenchmarkWorlds;
+import game.GameWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CollisionBenchmark class measures one collision pass, Fish.updateCollision for every fish, for a number of fish of
+ * mixed levels. The fish are spread out at the same density as in the game, so the grid cells hold about as many fish
+ * no matter how many fish there are. The fish that are eaten are revived before every pass, so every pass does the same
+ * work. Every broadphase is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    private static final long SEED = 42;
+    private static final double AREA_PER_FISH = 200 * 200; // Square pixels of ocean per fish, roughly as in the game
+
+    @Param({"100", "1000", "10000"})
+    public int fishCount;
+
+    @Param({"grid", "sweepAndPrune", "bruteForce"})
+    public String broadphase;
+
+    private final List<Fish> fish = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        GameWorld world = BenchmarkWorlds.create();
+        FishFactory factory = world.getFishFactory();
+        factory.setBroadphase(broadphase);
+        Random random = new Random(SEED);
+
+        double side = Math.sqrt(fishCount * AREA_PER_FISH);
+        FishType[] types = {FishType.SMALL_FISH, FishType.MEDIUM_FISH, FishType.LARGE_FISH};
+        for (int i = 0; i < fishCount; i++) {
+            int level = 1 + i % types.length;
+            double x = random.nextDouble() * side;
+            double y = random.nextDouble() * side;
+            double velX = random.nextBoolean() ? 1 : -1;
+            Fish created = factory.obtainBasicEnemy(types[level - 1], x, y, velX, random.nextDouble() - 0.5, level);
+            created.updateBodyCollider();
+            created.updateMouthCollider();
+            created.updateBroadphase();
+            fish.add(created);
+        }
+    }
+
+    @Benchmark
+    public int updateCollision() {
+        for (int i = 0; i < fish.size(); i++) {
+            fish.get(i).isDead = false;
+        }
+        int eaten = 0;
+        for (int i = 0; i < fish.size(); i++) {
+            fish.get(i).updateCollision();
+        }
+        for (int i = 0; i < fish.size(); i++) {
+            if (fish.get(i).isDead) eaten++;
+        }
+        return eaten;
+    }
+}
@@ -0,0 +1,68 @@
+package entity;
+
+import benchmark.BenchmarkWorlds;
+import game.GameWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The FishFactoryBenchmark class measures spawning and removing fish with a fixed number of fish alive.
+ * spawnFishAroundPlayer spawns with a spawn rate of 1, so that every call spawns, and kills what it spawned again, so the
+ * number of fish stays the same and every later spawn comes from the fish pool, as in a game that has warmed up.
+ * removeDead measures the scan that runs every tick, when no fish have died.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FishFactoryBenchmark {
+
+    @Param({"100", "1000"})
+    public int fishCount;
+
+    private GameWorld world;
+    private FishFactory factory;
+
+    @Setup
+    public void setUp() {
+        world = BenchmarkWorlds.create();
+        factory = world.getFishFactory();
+        FishType[] types = {FishType.SMALL_FISH, FishType.MEDIUM_FISH, FishType.LARGE_FISH, FishType.SCHOOL, FishType.BARRACUDA};
+        for (int i = 0; factory.getFishList().size() < fishCount; i++) {
+            factory.getFish(types[i % types.length]);
+        }
+    }
+
+    @Benchmark
+    public int spawnFishAroundPlayer() {
+        int alive = factory.getFishList().size();
+        factory.spawnFishAroundPlayer(1);
+
+        // Kill the fish that were just spawned, which are at the end of the list
+        int index = 0;
+        for (Fish fish : factory.getFishList()) {
+            if (index++ >= alive) fish.isDead = true;
+        }
+        factory.removeDead();
+        return index - alive;
+    }
+
+    @Benchmark
+    public int removeDead() {
+        factory.removeDead();
+        return factory.getFishList().size();
+    }
+}
@@ -0,0 +1,80 @@
+package entity;
+
+import benchmark.BenchmarkWorlds;
+import game.GameWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The FishStoreBenchmark class measures FishFactory.updateFish, the movement and collision of every fish, through the
+ * Fish objects, with the fish store, and with the fish store in parallel mode. The fish are spread out like in
+ * CollisionBenchmark. They swim apart while an iteration runs, so the world is created again for every iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FishStoreBenchmark {
+
+    private static final long SEED = 42;
+    private static final double AREA_PER_FISH = 200 * 200; // Square pixels of ocean per fish, roughly as in the game
+
+    @Param({"100", "1000", "10000"})
+    public int fishCount;
+
+    @Param({"objects", "store", "parallel"})
+    public String mode;
+
+    private final List<Fish> fish = new ArrayList<>();
+    private FishFactory factory;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        GameWorld world = BenchmarkWorlds.create();
+        factory = world.getFishFactory();
+        factory.setFishStoreEnabled(!mode.equals("objects"));
+        factory.setParallelUpdate(mode.equals("parallel"));
+        Random random = new Random(SEED);
+        fish.clear();
+
+        double side = Math.sqrt(fishCount * AREA_PER_FISH);
+        FishType[] types = {FishType.SMALL_FISH, FishType.MEDIUM_FISH, FishType.LARGE_FISH};
+        for (int i = 0; i < fishCount; i++) {
+            int level = 1 + i % types.length;
+            double x = random.nextDouble() * side;
+            double y = random.nextDouble() * side;
+            double velX = random.nextBoolean() ? 1 : -1;
+            fish.add(factory.obtainBasicEnemy(types[level - 1], x, y, velX, random.nextDouble() - 0.5, level));
+        }
+    }
+
+    @Benchmark
+    public int updateFish() {
+        for (int i = 0; i < fish.size(); i++) {
+            fish.get(i).isDead = false; // Revive the fish that were eaten or are too far from the player
+        }
+        factory.updateFish();
+        int dead = 0;
+        for (int i = 0; i < fish.size(); i++) {
+            if (fish.get(i).isDead) dead++;
+        }
+        return dead;
+    }
+}
@@ -0,0 +1,82 @@
+package game;
+
+import benchmark.BenchmarkWorlds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.Point2D;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CameraBenchmark class measures Camera.update, which averages the latest movement samples of the player, and
+ * Point2D.listAverage, which the camera averaged a list of samples with before it kept them in a ring buffer.
+ * Camera.update averages as many samples as camera.maxMovListSamples in the settings, so only the list averages are run
+ * with each sample count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CameraBenchmark {
+
+    /**
+     * The SampleList class holds the list of samples for the list averages.
+     */
+    @State(Scope.Benchmark)
+    public static class SampleList {
+
+        @Param({"10", "100"})
+        public int sampleCount;
+
+        private final List<Point2D> samples = new ArrayList<>();
+        private final Point2D average = new Point2D();
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < sampleCount; i++) {
+                samples.add(new Point2D(Math.cos(i), Math.sin(i)));
+            }
+        }
+    }
+
+    private Camera camera;
+    private final Point2D sample = new Point2D();
+    private long step = 0;
+
+    @Setup
+    public void setUp() {
+        GameWorld world = BenchmarkWorlds.create();
+        camera = world.getMainCam();
+    }
+
+    @Benchmark
+    public Point2D update() {
+        step++;
+        camera.updateMovList(sample.set(Math.cos(step), Math.sin(step)));
+        camera.update();
+        return camera.getPosition();
+    }
+
+    @Benchmark
+    public Point2D listAverage(SampleList list) {
+        return Point2D.listAverage(list.samples);
+    }
+
+    @Benchmark
+    public Point2D listAverageInto(SampleList list) {
+        return Point2D.listAverage(list.samples, list.average);
+    }
+}
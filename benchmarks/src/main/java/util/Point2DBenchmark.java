@@ -0,0 +1,85 @@
+package util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Point2DBenchmark class measures the Point2D arithmetic that the game runs for every entity every tick, both the
+ * versions that return a new point and the ones that write to an existing point. The inputs are fields, so that the JIT
+ * cannot fold the calculations into constants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Point2DBenchmark {
+
+    private final Point2D a = new Point2D(3, 4);
+    private final Point2D b = new Point2D(-1.5, 2.5);
+    private final Point2D min = new Point2D(0, 0);
+    private final Point2D max = new Point2D(2, 2);
+    private final Point2D out = new Point2D();
+    private double angle = 0.7;
+    private double scalar = 1.5;
+
+    @Benchmark
+    public Point2D sum() {
+        return Point2D.sum(a, b);
+    }
+
+    @Benchmark
+    public Point2D sumInto() {
+        return Point2D.sum(a, b, out);
+    }
+
+    @Benchmark
+    public Point2D product() {
+        return Point2D.product(a, scalar);
+    }
+
+    @Benchmark
+    public Point2D productInto() {
+        return Point2D.product(a, scalar, out);
+    }
+
+    @Benchmark
+    public Point2D xyComponents() {
+        return Point2D.xyComponents(scalar, angle);
+    }
+
+    @Benchmark
+    public Point2D xyComponentsInto() {
+        return Point2D.xyComponents(scalar, angle, out);
+    }
+
+    @Benchmark
+    public Point2D clamp() {
+        return Point2D.clamp(a, min, max);
+    }
+
+    @Benchmark
+    public Point2D clampInto() {
+        return Point2D.clamp(a, min, max, out);
+    }
+
+    @Benchmark
+    public double distance() {
+        return Point2D.distance(a, b);
+    }
+
+    @Benchmark
+    public Point2D addInPlace() {
+        return out.set(a).add(b).multiply(scalar);
+    }
+}
@@ -1,14 +1,11 @@
 package entity;
 
-import game.AppPanel;
+import game.GameWorld;
 import media.MovingText;
 import util.Point2D;
-import util.PropertiesLoaderBorrowedCode;
+import util.TimerWheel;
 
 import java.awt.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 /**
  * The Barracuda is a large fish that eats everything else. If the player bites its tail, it stops for a few seconds and
@@ -19,31 +16,31 @@ import java.util.concurrent.TimeUnit;
  */
 public class Barracuda extends Fish {
 
-    private PropertiesLoaderBorrowedCode defaultSettings = new PropertiesLoaderBorrowedCode("src/defaultsettings");
+    private final float waitTimeSeconds = settings.getBarracudaWaitTime();
+    private final float chaseTimeSeconds = settings.getBarracudaChaseTime();
 
-    private final float waitTimeSeconds = (float) defaultSettings.getValue("barracuda.wait.time", float.class);
-    private final float chaseTimeSeconds = (float) defaultSettings.getValue("barracuda.chase.time", float.class);
-
-    private final int width = (int) defaultSettings.getValue("barracuda.size.width", int.class); // Width of the barracuda fish
-    private final int height = (int) defaultSettings.getValue("barracuda.size.height", int.class); // Height of the barracuda fish
+    private final int width = settings.getBarracudaWidth(); // Width of the barracuda fish
+    private final int height = settings.getBarracudaHeight(); // Height of the barracuda fish
 
     private static final float WAIT_VELOCITY = 0.001f; // Arbitrary small value. Used to maintain look direction.
-    private final float chaseVelocity = (int) defaultSettings.getValue("barracuda.chase.velocity", int.class);
+    private final float chaseVelocity = settings.getBarracudaChaseVelocity();
     private final Point2D velocityAfterBitten = new Point2D(4, 0);
 
-    private final int tailBiteXp = (int) defaultSettings.getValue("barracuda.xp.tailBite", int.class);
-    private final int tailBiteTextOffsetY = (int) defaultSettings.getValue("barracuda.xp.tailBite.text.offset.y", int.class);
+    private final int tailBiteXp = settings.getBarracudaTailBiteXp();
+    private final int tailBiteTextOffsetY = settings.getBarracudaTailBiteTextOffsetY();
 
     private int livesLeft = 3;
     private Behaviour state = Behaviour.DEFAULT;
+    private TimerWheel.Timer behaviourTimer = null; // Ends the current WAITING or CHASING state
 
     private Point2D mouthOffset = null;
+    private final Point2D mouthColliderSize = new Point2D(); // Reused by updateMouthCollider
 
     public Barracuda(final Point2D position, final Point2D size, final Point2D velocity,
-		     final boolean addToUniverse, FishFactory fishFactory, AppPanel appPanel)
+		     final boolean addToUniverse, FishFactory fishFactory, GameWorld world)
     {
-	super(position, size, velocity, 15, true, fishFactory, appPanel, // Magic number: Arbitrary high level (doesn't really matter).
-	      appPanel.getImageManager().getSpriteHashMap().get("BARRACUDA"));
+	super(position, size, velocity, 15, true, fishFactory, world, // Magic number: Arbitrary high level (doesn't really matter).
+	      world.getImageManager().getSpriteHashMap().get("BARRACUDA"));
 	setSize();
     }
 
@@ -52,7 +49,7 @@ public class Barracuda extends Fish {
      */
     @Override
     protected void updateBodyCollider() {
-        bodyCollider = getRectangle(colliderSize, colliderOffset);
+        getRectangle(colliderSize, colliderOffset, bodyCollider);
     }
 
     /**
@@ -60,7 +57,7 @@ public class Barracuda extends Fish {
      */
     @Override
     protected void updateMouthCollider() {
-	mouthCollider = getRectangle(new Point2D(mouthSize, mouthSize), mouthOffset);
+	getRectangle(mouthColliderSize.set(mouthSize, mouthSize), mouthOffset, mouthCollider);
     }
 
     /**
@@ -74,22 +71,52 @@ public class Barracuda extends Fish {
 	}
     }
 
+    /**
+     * usesFishStore returns false, since the barracuda chases the player and has its own collision handling.
+     */
+    @Override
+    protected boolean usesFishStore() {
+	return false;
+    }
+
+    /**
+     * respawn resets the lives and behaviour of a pooled barracuda in addition to the regular fish state.
+     */
+    @Override
+    protected void respawn(double x, double y, double velX, double velY) {
+	livesLeft = 3;
+	state = Behaviour.DEFAULT;
+	super.respawn(x, y, velX, velY);
+    }
+
+    /**
+     * cancelTimers stops the pending state change in addition to the regular fish timers.
+     */
+    @Override
+    protected void cancelTimers() {
+	super.cancelTimers();
+	if (behaviourTimer != null) {
+	    behaviourTimer.cancel();
+	    behaviourTimer = null;
+	}
+    }
+
     /**
      * followPlayer updates the position in order to follow the player. It calculates the angle between the player and
      * the mouth collider and moves linearly in that direction. It uses velocity to set the look direction.
      */
     private void followPlayer() {
-        velocity = new Point2D(0, 0);
-        Point2D mouthCenter = new Point2D(mouthCollider.getX() + mouthCollider.getWidth(),
-					  mouthCollider.getY() + mouthCollider.getHeight());
-	Point2D playerCenter = appPanel.getPlayer().getPlayerCenter();
+        velocity.set(0, 0);
+        double mouthCenterX = mouthCollider.getX() + mouthCollider.getWidth();
+        double mouthCenterY = mouthCollider.getY() + mouthCollider.getHeight();
+	Point2D playerCenter = world.getPlayer().getPlayerCenter();
 
-        double angleToPlayer = Math.atan2(mouthCenter.getY() - playerCenter.getY(),
-					  mouthCenter.getX() - playerCenter.getX());
+        double angleToPlayer = Math.atan2(mouthCenterY - playerCenter.getY(),
+					  mouthCenterX - playerCenter.getX());
         position.addX(-chaseVelocity * Math.cos(angleToPlayer));
         position.addY(-chaseVelocity * Math.sin(angleToPlayer));
 
-        if (appPanel.getPlayer().getPosition().getX() > position.getX()){
+        if (world.getPlayer().getPosition().getX() > position.getX()){
             velocity.setX(WAIT_VELOCITY);
 	}
         else {
@@ -105,8 +132,8 @@ public class Barracuda extends Fish {
     @Override
     protected void updateMouthCollision(Fish other){
         if (hasMouthCollision(other)) {
-	    if (other.equals(appPanel.getPlayer())) {
-	        if (!appPanel.getPlayer().isInvulnerable) {
+	    if (other.equals(world.getPlayer())) {
+	        if (!world.getPlayer().isInvulnerable) {
 		    other.die();
 		}
 	    } else {
@@ -124,7 +151,7 @@ public class Barracuda extends Fish {
      */
     @Override
     protected void updateBodyCollision(Fish other){
-	if (other.equals(appPanel.getPlayer())) {
+	if (other.equals(world.getPlayer())) {
 	    if (hasBodyCollision(other)) {
 		if (!isInvulnerable) {
 		    if (livesLeft == 1) { // Magic number: Given the context of the usage, what it refers to seems obvious enough.
@@ -146,13 +173,11 @@ public class Barracuda extends Fish {
 
 	if (state != Behaviour.WAITING) {
 	    giveTailBiteXp();
-	    appPanel.getAudioLoader().playClip("BITE");
+	    world.getAudioLoader().playClip("BITE");
 	    velocity = new Point2D(WAIT_VELOCITY * Math.signum(velocity.getX()), 0);
 	    isInvulnerable = true;
 	    livesLeft--;
 	}
-	ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-
 	final Runnable startChase = new Runnable()
 	{
 	    @Override public void run() {
@@ -161,8 +186,8 @@ public class Barracuda extends Fish {
 	};
 	if (state != Behaviour.WAITING) {
 	    state = Behaviour.WAITING;
-	    final float msToSec = 1000.0f;
-	    scheduler.schedule(startChase, (long) (msToSec * waitTimeInSeconds), TimeUnit.MILLISECONDS); // Magic constant: Used to convert sec --> ms, seems obvious enough.
+	    TimerWheel timerWheel = world.getTimerWheel();
+	    behaviourTimer = timerWheel.schedule(startChase, timerWheel.secondsToTicks(waitTimeInSeconds));
 	}
     }
 
@@ -171,7 +196,6 @@ public class Barracuda extends Fish {
      * @param chaseTimeSeconds The time to chase the player in seconds.
      */
     private void beginChase(float chaseTimeSeconds) {
-	ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
 	final Runnable stopChase = new Runnable()
 	{
 	    @Override public void run() {
@@ -182,8 +206,8 @@ public class Barracuda extends Fish {
 	};
 	if (state != Behaviour.CHASING) {
 	    state = Behaviour.CHASING;
-	    final float msToSec = 1000.0f;
-	    scheduler.schedule(stopChase, (long) (msToSec * chaseTimeSeconds), TimeUnit.MILLISECONDS); // Magic constant: Used to convert sec --> ms, seems obvious enough.
+	    TimerWheel timerWheel = world.getTimerWheel();
+	    behaviourTimer = timerWheel.schedule(stopChase, timerWheel.secondsToTicks(chaseTimeSeconds));
 	}
     }
 
@@ -191,34 +215,37 @@ public class Barracuda extends Fish {
      * getRectangle retrieves a rectangle that automatically gets mirrored on its x-axis if the barracuda changes its direction.
      * @param colSize The size of the collider.
      * @param colOffset The offset of the collider.
+     * @param out The rectangle to store the collider bounds in.
      * @return the rectangle.
      */
-    private Rectangle getRectangle(Point2D colSize, Point2D colOffset) {
+    private Rectangle getRectangle(Point2D colSize, Point2D colOffset, Rectangle out) {
 	double centerX = position.getX() + size.getX()/2;
 
 	double colliderOffsetX = colOffset.getX();
 	if (facingRight) {
 	    colliderOffsetX = -colOffset.getX();
 	}
-	Point2D colliderPos = new Point2D(centerX + colliderOffsetX - colSize.getX()/2, position.getY() + colOffset.getY());
-	return new Rectangle(
-		(int)colliderPos.getX(),
-		(int)colliderPos.getY(),
+	double colliderX = centerX + colliderOffsetX - colSize.getX()/2;
+	double colliderY = position.getY() + colOffset.getY();
+	out.setBounds(
+		(int)colliderX,
+		(int)colliderY,
 		(int)colSize.getX(),
 		(int)colSize.getY()
 	);
+	return out;
     }
 
     /**
      * giveTailBiteXp Gives the player xp for biting the tail, and adds a "tail bite" text.
      */
     private void giveTailBiteXp() {
-	appPanel.getPlayer().gainExperience(tailBiteXp);
-	appPanel.getMovingTexts().add(
-		new MovingText(appPanel.getPlayer().position, movingTextVel, "+" + tailBiteXp, movingTextSize, Color.WHITE)
+	world.getPlayer().gainExperience(tailBiteXp);
+	world.getMovingTexts().add(
+		new MovingText(world.getMainCam().toScreen(world.getPlayer().position), movingTextVel, "+" + tailBiteXp, movingTextSize, Color.WHITE)
 	);
-	appPanel.getMovingTexts().add(
-		new MovingText(Point2D.sum(appPanel.getPlayer().position, new Point2D(0, tailBiteTextOffsetY)),
+	world.getMovingTexts().add(
+		new MovingText(Point2D.sum(world.getMainCam().toScreen(world.getPlayer().position), new Point2D(0, tailBiteTextOffsetY)),
 			       movingTextVel, "TAIL BITE!", movingTextSize, Color.ORANGE)
 	);
     }
@@ -230,18 +257,18 @@ public class Barracuda extends Fish {
     protected void setSize() {
         size = new Point2D(width, height);
 
-	final int colliderOffsetX = (int) defaultSettings.getValue("barracuda.collider.offset.x", int.class); // Collider offset
-	final int colliderOffsetY = (int) defaultSettings.getValue("barracuda.collider.offset.y", int.class);
-	final int colliderSizeX = (int) defaultSettings.getValue("barracuda.collider.size.x", int.class); // Collider size
-	final int colliderSizeY = (int) defaultSettings.getValue("barracuda.collider.size.y", int.class);
+	final int colliderOffsetX = settings.getBarracudaColliderOffsetX(); // Collider offset
+	final int colliderOffsetY = settings.getBarracudaColliderOffsetY();
+	final int colliderSizeX = settings.getBarracudaColliderSizeX(); // Collider size
+	final int colliderSizeY = settings.getBarracudaColliderSizeY();
 
         colliderOffset = new Point2D(colliderOffsetX, colliderOffsetY);
         colliderSize = new Point2D(colliderSizeX, colliderSizeY);
 
-	final int mouthCollOffsetX = (int) defaultSettings.getValue("barracuda.collider.mouth.offset.x", int.class); // Mouth offset
-	final int mouthCollOffsetY = (int) defaultSettings.getValue("barracuda.collider.mouth.offset.y", int.class);
+	final int mouthCollOffsetX = settings.getBarracudaMouthOffsetX(); // Mouth offset
+	final int mouthCollOffsetY = settings.getBarracudaMouthOffsetY();
         mouthOffset = new Point2D(mouthCollOffsetX, mouthCollOffsetY);
-	mouthSize = (int) defaultSettings.getValue("barracuda.collider.mouth.size", int.class);
+	mouthSize = settings.getBarracudaMouthSize();
     }
 
     /**
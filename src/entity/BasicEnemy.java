@@ -1,8 +1,7 @@
 package entity;
 
-import game.AppPanel;
+import game.GameWorld;
 import util.Point2D;
-import util.PropertiesLoaderBorrowedCode;
 
 /**
  * The BasicEnemy class contains information about basic enemies that the player will
@@ -10,14 +9,12 @@ import util.PropertiesLoaderBorrowedCode;
  */
 public class BasicEnemy extends Fish {
 
-    private PropertiesLoaderBorrowedCode defaultSettings = new PropertiesLoaderBorrowedCode("src/defaultsettings");
-
     /**
      * Constructor that initializes a BasicEnemy object. Sets the size of fish,
      * depending on the level that was inputted in the constructor
      */
-    public BasicEnemy(Point2D position, Point2D size, Point2D velocity, int level, FishFactory fishFactory, AppPanel appPanel) {
-        super(position, size, velocity, level, true, fishFactory, appPanel);
+    public BasicEnemy(Point2D position, Point2D size, Point2D velocity, int level, FishFactory fishFactory, GameWorld world) {
+        super(position, size, velocity, level, true, fishFactory, world);
 
         setSize();
         setSprite(level);
@@ -31,24 +28,24 @@ public class BasicEnemy extends Fish {
         // Magic constants in switch case: shouldn't be avoided - would just look cluttered to introduce constants.
         switch(level){
             case 1: // Small fish
-                final int smallWidth = (int) defaultSettings.getValue("basicEnemy.small.width", int.class);
-                final int smallHeight = (int) defaultSettings.getValue("basicEnemy.small.height", int.class);
+                final int smallWidth = settings.getSmallWidth();
+                final int smallHeight = settings.getSmallHeight();
                 size = new Point2D(smallWidth, smallHeight);
                 colliderSize = size;
                 mouthSize = 10; // Magic constant: This is just to make debug mode prettier to look at. Arbitrary small value.
                 break;
             case 2: // Medium fish
-                final int mediumWidth = (int) defaultSettings.getValue("basicEnemy.medium.width", int.class);
-                final int mediumHeight = (int) defaultSettings.getValue("basicEnemy.medium.height", int.class);
-                final int medMouthSize = (int) defaultSettings.getValue("basicEnemy.medium.mouthSize", int.class);
+                final int mediumWidth = settings.getMediumWidth();
+                final int mediumHeight = settings.getMediumHeight();
+                final int medMouthSize = settings.getMediumMouthSize();
                 size = new Point2D(mediumWidth, mediumHeight);
                 colliderSize = size;
                 mouthSize = medMouthSize;
                 break;
             case 3: // Large fish
-                final int largeWidth = (int) defaultSettings.getValue("basicEnemy.large.width", int.class);
-                final int largeHeight = (int) defaultSettings.getValue("basicEnemy.large.height", int.class);
-                final int larMouthSize = (int) defaultSettings.getValue("basicEnemy.medium.mouthSize", int.class);
+                final int largeWidth = settings.getLargeWidth();
+                final int largeHeight = settings.getLargeHeight();
+                final int larMouthSize = settings.getMediumMouthSize();
                 size = new Point2D(largeWidth, largeHeight);
                 mouthSize = larMouthSize;
                 colliderSize = new Point2D(largeWidth, 100); // Magic constant: Additional fine-tuning.
@@ -69,13 +66,13 @@ public class BasicEnemy extends Fish {
     private void setSprite(int level) {
         switch (level) {
             case 1:
-                sprite = appPanel.getImageManager().getSpriteHashMap().get("SMALL FISH");
+                sprite = world.getImageManager().getSpriteHashMap().get("SMALL FISH");
                 break;
             case 2:
-                sprite = appPanel.getImageManager().getSpriteHashMap().get("MEDIUM FISH");
+                sprite = world.getImageManager().getSpriteHashMap().get("MEDIUM FISH");
                 break;
             case 3:
-                sprite = appPanel.getImageManager().getSpriteHashMap().get("LARGE FISH");
+                sprite = world.getImageManager().getSpriteHashMap().get("LARGE FISH");
         }
     }
 }
@@ -0,0 +1,51 @@
+package entity;
+
+import java.awt.*;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The Broadphase interface is implemented by the structures that find the fish that could be colliding, so that the
+ * precise collider tests only run on a few pairs. Every fish reports the area it covers each tick, and the fish near an
+ * area can then be looked up. The same lookup is used to find the fish that are on screen.
+ * Which implementation the game uses is set by collision.broadphase in the settings. They all return the same fish for
+ * the collision checks, in the same order, so a game plays out the same way with each of them.
+ */
+public interface Broadphase {
+
+    Comparator<Fish> SPAWN_ORDER = Comparator.comparingLong(fish -> fish.spawnOrder);
+
+    /**
+     * update method sets the area covered by a fish, adding the fish if it is not in the broadphase yet.
+     * @param fish The fish to update.
+     * @param bounds The bounds of the fish, in pixels.
+     */
+    void update(Fish fish, Rectangle bounds);
+
+    /**
+     * remove method removes a fish. Does nothing if the fish is not in the broadphase.
+     * @param fish The fish to remove.
+     */
+    void remove(Fish fish);
+
+    /**
+     * query method collects the fish that could overlap the given area. Each fish is only added once, and the result is
+     * sorted in spawn order so that collisions are resolved in the same order as a plain loop over the fish list. The
+     * result may contain fish that do not overlap the area, but never misses one that does.
+     * @param bounds The area to search, in pixels.
+     * @param result The list to fill. It is cleared before any fish are added.
+     */
+    void query(Rectangle bounds, List<Fish> result);
+
+    /**
+     * queryUnordered method is query without the ordering: a fish may be added more than once, and the result is not
+     * sorted. The broadphase is only read, so several threads can query it at the same time, as long as no fish is
+     * updated meanwhile.
+     * @param x The left edge of the area, in pixels.
+     * @param y The top edge of the area, in pixels.
+     * @param width The width of the area.
+     * @param height The height of the area.
+     * @param result The list to fill. It is cleared before any fish are added.
+     */
+    void queryUnordered(int x, int y, int width, int height, List<Fish> result);
+}
@@ -0,0 +1,68 @@
+package entity;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The BruteForceBroadphase class keeps every fish in one array and checks all of them on every query. It needs no
+ * upkeep as fish move, but a collision pass takes quadratic time, so it is only meant as a baseline to compare the other
+ * broadphases against.
+ */
+public class BruteForceBroadphase implements Broadphase {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private Fish[] fish = new Fish[INITIAL_CAPACITY];
+    private int count = 0;
+
+    @Override
+    public void update(Fish fish, Rectangle bounds) {
+        fish.boundsMinX = bounds.x;
+        fish.boundsMinY = bounds.y;
+        fish.boundsMaxX = bounds.x + Math.max(bounds.width - 1, 0);
+        fish.boundsMaxY = bounds.y + Math.max(bounds.height - 1, 0);
+        if (fish.broadphaseIndex >= 0) return;
+
+        if (count == this.fish.length) this.fish = Arrays.copyOf(this.fish, count * 2);
+        this.fish[count] = fish;
+        fish.broadphaseIndex = count++;
+    }
+
+    /**
+     * remove method moves the last fish into the slot of the removed fish, so the array stays dense.
+     */
+    @Override
+    public void remove(Fish fish) {
+        int index = fish.broadphaseIndex;
+        if (index < 0) return;
+
+        Fish last = this.fish[--count];
+        this.fish[index] = last;
+        last.broadphaseIndex = index;
+        this.fish[count] = null;
+        fish.broadphaseIndex = -1;
+    }
+
+    @Override
+    public void query(Rectangle bounds, List<Fish> result) {
+        queryUnordered(bounds.x, bounds.y, bounds.width, bounds.height, result);
+        result.sort(SPAWN_ORDER);
+    }
+
+    /**
+     * queryUnordered method checks every fish against the area. Each fish is added at most once.
+     */
+    @Override
+    public void queryUnordered(int x, int y, int width, int height, List<Fish> result) {
+        result.clear();
+        int maxX = x + Math.max(width - 1, 0);
+        int maxY = y + Math.max(height - 1, 0);
+        for (int i = 0; i < count; i++) {
+            Fish other = fish[i];
+            if (other.boundsMinX <= maxX && other.boundsMaxX >= x && other.boundsMinY <= maxY && other.boundsMaxY >= y) {
+                result.add(other);
+            }
+        }
+    }
+}
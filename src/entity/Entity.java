@@ -1,13 +1,12 @@
 package entity;
 
-import game.AppPanel;
+import game.GameWorld;
 import media.Sprite;
 import util.Point2D;
 
+import util.TimerWheel;
+
 import java.awt.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 /**
  * The class Entity handles the position, size and sprite of an entity e.g a normal fish or a barracuda.
@@ -20,23 +19,28 @@ import java.util.concurrent.TimeUnit;
 public abstract class Entity {
 
     protected Point2D position;
+    protected Point2D previousPosition; // Position at the start of the current tick, used for interpolation
     protected Point2D size;
     protected Sprite sprite = null;
     protected boolean render = true;
     protected boolean isBlinking = false;
-    protected AppPanel appPanel;
+    private TimerWheel.Timer blinkTimer = null;
+    int handle = -1; // Handle in the EntityRegistry, set while the entity is registered
+    protected GameWorld world;
 
-    protected Entity(Point2D position, Point2D size, AppPanel appPanel) {
+    protected Entity(Point2D position, Point2D size, GameWorld world) {
         this.position = position;
+        this.previousPosition = new Point2D(position);
         this.size = size;
-        this.appPanel = appPanel;
+        this.world = world;
     }
 
-    protected Entity(Point2D position, Point2D size, Sprite sprite, AppPanel appPanel) {
+    protected Entity(Point2D position, Point2D size, Sprite sprite, GameWorld world) {
         this.position = position;
+        this.previousPosition = new Point2D(position);
         this.size = size;
         this.sprite = sprite;
-        this.appPanel = appPanel;
+        this.world = world;
     }
 
     /**
@@ -44,31 +48,78 @@ public abstract class Entity {
      * @param Point2D new position.
      */
     public void move(Point2D delta) {
-	position = Point2D.sum(position, delta);
+	position.add(delta);
     }
 
     /**
-     * render method renders the entitys sprite, if it has one
+     * savePreviousPosition method stores the current position so that rendering can interpolate from it.
+     * Should be called at the start of every tick.
+     */
+    public void savePreviousPosition() {
+        previousPosition.setX(position.getX());
+        previousPosition.setY(position.getY());
+    }
+
+    /**
+     * render method renders the entity at its current position.
      * @param Graphics g.
      */
     public void render(Graphics g) {
+        render(g, 1);
+    }
+
+    /**
+     * render method renders the entitys sprite, if it has one
+     * @param g The graphics object.
+     * @param alpha How far between the previous and the current position the entity should be drawn (0-1).
+     */
+    public void render(Graphics g, double alpha) {
         if (!render) return;
+        int x = interpolatedX(alpha);
+        int y = interpolatedY(alpha);
         if (hasSprite()) {
-            g.drawImage(sprite.getBufferedImage(), (int) position.getX(), (int) position.getY(), (int) size.getX(), (int) size.getY(), null);
+            // Drawn 1:1 from an image that has already been scaled to the size of the entity
+            Image scaled = world.getImageManager().getSpriteCache().get(sprite, (int) size.getX(), (int) size.getY(), false);
+            g.drawImage(scaled, x, y, null);
         } else {
             g.setColor(Color.RED);
-            g.fillRect((int)position.getX(), (int)position.getY(), (int)size.getX(), (int)size.getY());
+            g.fillRect(x, y, (int)size.getX(), (int)size.getY());
         }
     }
 
+    /**
+     * getRenderBounds method calculates the area the entity is drawn in, between the previous and the current tick.
+     * @param alpha The interpolation factor (0-1).
+     * @param bounds The rectangle to store the result in.
+     */
+    public void getRenderBounds(double alpha, Rectangle bounds) {
+        bounds.setBounds(interpolatedX(alpha), interpolatedY(alpha), (int) size.getX(), (int) size.getY());
+    }
+
+    /**
+     * interpolatedX method returns the x position between the previous and the current tick.
+     * @param alpha The interpolation factor (0-1).
+     * @return The interpolated x position in pixels.
+     */
+    protected int interpolatedX(double alpha) {
+        return (int) (previousPosition.getX() + (position.getX() - previousPosition.getX()) * alpha);
+    }
+
+    /**
+     * interpolatedY method returns the y position between the previous and the current tick.
+     * @param alpha The interpolation factor (0-1).
+     * @return The interpolated y position in pixels.
+     */
+    protected int interpolatedY(double alpha) {
+        return (int) (previousPosition.getY() + (position.getY() - previousPosition.getY()) * alpha);
+    }
+
     /**
      * render method periodically toggles the visibility of an entity
      * @param durationInSeconds The blink duration in seconds.
      * @param frequency The blink frequency in seconds.
      */
     public void blink(float durationInSeconds, float frequency) {
-        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-
         final Runnable blink = new Runnable()
         {
             private float nBlinks = 0;
@@ -78,23 +129,35 @@ public abstract class Entity {
                 nBlinks++;
                 if (nBlinks > durationInSeconds * frequency * 2) {
                     isBlinking = false;
-                    scheduler.shutdown();
+                    blinkTimer.cancel();
                     render = true;
                 }
             }
         };
         if (!isBlinking) {
             isBlinking = true;
-            final float msToSec = 1000.0f;
-            scheduler.scheduleAtFixedRate(blink, 0, (long) (msToSec / (frequency * 2)), TimeUnit.MILLISECONDS);
+            TimerWheel timerWheel = world.getTimerWheel();
+            blinkTimer = timerWheel.scheduleAtFixedRate(blink, 0, timerWheel.secondsToTicks(1 / (frequency * 2.0)));
+        }
+    }
+
+    /**
+     * cancelTimers method stops every timed event of the entity, e.g. before it is reused.
+     */
+    protected void cancelTimers() {
+        if (blinkTimer != null) {
+            blinkTimer.cancel();
+            blinkTimer = null;
         }
+        isBlinking = false;
+        render = true;
     }
 
     /**
      * remove method removes the entity from the universe
      */
     protected void remove() {
-        appPanel.getUniverse().removeEntity(this);
+        world.getUniverse().removeEntity(this);
     }
 
     /**
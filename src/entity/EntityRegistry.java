@@ -0,0 +1,236 @@
+package entity;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The EntityRegistry class is the single store for every entity in the game. Entities are kept in one dense array in the
+ * order they were added, and each entity gets a generational handle that stays valid until it is removed.
+ * Every entry has a set of flags that decides which views it is part of: UNIVERSE (moved by the camera) and FISH
+ * (updated and collided by the FishFactory). Universe and FishFactory only see typed views over the registry.
+ * Removing an entity is O(1): its slot is cleared and the array is compacted in a single pass by compact, which keeps the
+ * order of the remaining entities.
+ */
+public class EntityRegistry {
+
+    public static final int UNIVERSE = 1;
+    public static final int FISH = 2;
+
+    private static final int ALL_FLAGS = UNIVERSE | FISH;
+
+    private static final int INDEX_BITS = 20;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << (31 - INDEX_BITS)) - 1; // Keeps handles positive
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Dense storage, in insertion order. Removed entries are null until the next compaction.
+    private Entity[] entities = new Entity[INITIAL_CAPACITY];
+    private int[] entityFlags = new int[INITIAL_CAPACITY];
+    private int[] entityIndices = new int[INITIAL_CAPACITY]; // Handle index of each dense slot
+    private int size = 0;
+    private int removedCount = 0;
+
+    // Sparse handle table: handle index -> dense slot and generation
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int[] freeIndices = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    private int indexCount = 0;
+
+    private final int[] flagCounts = new int[ALL_FLAGS + 1]; // Number of entries per flag combination
+
+    /**
+     * add method registers an entity with the given flags. If the entity is already registered, the flags are added to
+     * its existing entry instead.
+     * @param entity The entity to add.
+     * @param flags The views the entity should be part of.
+     * @return int, the handle of the entity.
+     */
+    public int add(Entity entity, int flags) {
+        if (contains(entity)) {
+            setFlags(entity, flagsOf(entity) | flags);
+            return entity.handle;
+        }
+
+        int index;
+        if (freeCount > 0) {
+            index = freeIndices[--freeCount];
+        } else {
+            index = indexCount++;
+            if (index > INDEX_MASK) throw new IllegalStateException("Too many entities");
+            if (index == slots.length) {
+                slots = Arrays.copyOf(slots, index * 2);
+                generations = Arrays.copyOf(generations, index * 2);
+            }
+        }
+
+        if (size == entities.length) {
+            entities = Arrays.copyOf(entities, size * 2);
+            entityFlags = Arrays.copyOf(entityFlags, size * 2);
+            entityIndices = Arrays.copyOf(entityIndices, size * 2);
+        }
+        entities[size] = entity;
+        entityFlags[size] = flags;
+        entityIndices[size] = index;
+        slots[index] = size;
+        size++;
+        flagCounts[flags]++;
+
+        entity.handle = (generations[index] << INDEX_BITS) | index;
+        return entity.handle;
+    }
+
+    /**
+     * remove method removes an entity from every view. The handle becomes invalid and its index is reused by later
+     * entities with a new generation.
+     * @param entity The entity to remove.
+     */
+    public void remove(Entity entity) {
+        if (!contains(entity)) return;
+
+        int index = entity.handle & INDEX_MASK;
+        int slot = slots[index];
+        flagCounts[entityFlags[slot]]--;
+        entities[slot] = null;
+        entityFlags[slot] = 0;
+        removedCount++;
+
+        generations[index] = (generations[index] + 1) & GENERATION_MASK;
+        if (freeCount == freeIndices.length) {
+            freeIndices = Arrays.copyOf(freeIndices, freeCount * 2);
+        }
+        freeIndices[freeCount++] = index;
+        entity.handle = -1;
+    }
+
+    /**
+     * removeFlags method removes an entity from the given views. The entity is removed completely once it is not part of
+     * any view.
+     * @param entity The entity.
+     * @param flags The views to remove the entity from.
+     */
+    public void removeFlags(Entity entity, int flags) {
+        if (!contains(entity)) return;
+
+        int remaining = flagsOf(entity) & ~flags;
+        if (remaining == 0) {
+            remove(entity);
+        } else {
+            setFlags(entity, remaining);
+        }
+    }
+
+    /**
+     * compact method removes the empty slots left by removed entities, keeping the order of the remaining entities.
+     */
+    public void compact() {
+        if (removedCount == 0) return;
+
+        int target = 0;
+        for (int slot = 0; slot < size; slot++) {
+            Entity entity = entities[slot];
+            if (entity == null) continue;
+
+            entities[target] = entity;
+            entityFlags[target] = entityFlags[slot];
+            entityIndices[target] = entityIndices[slot];
+            slots[entityIndices[target]] = target;
+            target++;
+        }
+        Arrays.fill(entities, target, size, null);
+        size = target;
+        removedCount = 0;
+    }
+
+    /**
+     * get method returns the entity with the given handle.
+     * @param handle The handle.
+     * @return Entity, or null if the entity has been removed.
+     */
+    public Entity get(int handle) {
+        if (handle < 0) return null;
+        int index = handle & INDEX_MASK;
+        if (index >= indexCount || generations[index] != handle >>> INDEX_BITS) return null;
+        return entities[slots[index]];
+    }
+
+    /**
+     * contains method returns whether the entity is currently registered.
+     */
+    public boolean contains(Entity entity) {
+        return get(entity.handle) == entity;
+    }
+
+    /**
+     * view method returns a live view of the entities that have all of the given flags.
+     * @param type The type of the entities in the view. Every entity with the flags must be of this type; an entity that
+     * is not fails with a ClassCastException when the view reaches it.
+     * @param flags The flags to filter on.
+     * @return View, the view.
+     */
+    public <T extends Entity> View<T> view(Class<T> type, int flags) {
+        return new View<>(type, flags);
+    }
+
+    private int flagsOf(Entity entity) {
+        return entityFlags[slots[entity.handle & INDEX_MASK]];
+    }
+
+    private void setFlags(Entity entity, int flags) {
+        int slot = slots[entity.handle & INDEX_MASK];
+        flagCounts[entityFlags[slot]]--;
+        entityFlags[slot] = flags;
+        flagCounts[flags]++;
+    }
+
+    /**
+     * A View is a filtered, typed window into the registry. It iterates the dense array directly, skipping removed
+     * entries and entries without the view's flags. Entities added during iteration are included.
+     */
+    public final class View<T extends Entity> implements Iterable<T> {
+
+        private final Class<T> type;
+        private final int flags;
+
+        private View(Class<T> type, int flags) {
+            this.type = type;
+            this.flags = flags;
+        }
+
+        /**
+         * size method returns the number of entities in the view.
+         */
+        public int size() {
+            int count = 0;
+            for (int combination = 0; combination < flagCounts.length; combination++) {
+                if ((combination & flags) == flags) count += flagCounts[combination];
+            }
+            return count;
+        }
+
+        public boolean contains(Entity entity) {
+            return EntityRegistry.this.contains(entity) && (flagsOf(entity) & flags) == flags;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int slot = 0;
+
+                @Override
+                public boolean hasNext() {
+                    // Skipping is done here rather than in next, so that entities removed during iteration are skipped
+                    while (slot < size && (entities[slot] == null || (entityFlags[slot] & flags) != flags)) slot++;
+                    return slot < size;
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return type.cast(entities[slot++]);
+                }
+            };
+        }
+    }
+}
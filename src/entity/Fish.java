@@ -1,15 +1,15 @@
 package entity;
 
-import game.AppPanel;
+import game.GameWorld;
 import media.MovingText;
 import media.Sprite;
 import util.Point2D;
-import util.PropertiesLoaderBorrowedCode;
+import util.Settings;
+
+import util.TimerWheel;
 
 import java.awt.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 
 /**
  * The Fish class contains all the logic and information for a Fish object. A fish is an entity, moving or otherwise, that
@@ -19,13 +19,13 @@ import java.util.concurrent.TimeUnit;
  */
 public class Fish extends Entity {
 
-    private PropertiesLoaderBorrowedCode defaultSettings = new PropertiesLoaderBorrowedCode("src/defaultsettings");
+    protected final Settings settings = world.getSettings();
 
     // Load default props
     // Moving text variables
-    protected final float movingTextVel = (float) defaultSettings.getValue("fish.movingText.vel", float.class);
-    protected final int movingTextSize = (int) defaultSettings.getValue("fish.movingText.size", int.class);
-    private final int distanceOfRemoval = (int) defaultSettings.getValue("fish.distanceOfRemoval", int.class); // Remove fish that are this many pixels away from the player
+    protected final float movingTextVel = settings.getFishMovingTextVel();
+    protected final int movingTextSize = settings.getFishMovingTextSize();
+    private final int distanceOfRemoval = settings.getFishDistanceOfRemoval(); // Remove fish that are this many pixels away from the player
 
     // EXPERIENCE FORMULA
     // TOTAL_FACTOR * (EXP_FACTOR * LEVEL^EXPONENT)
@@ -50,69 +50,89 @@ public class Fish extends Entity {
     protected Point2D colliderOffset = new Point2D(0, 0);
 
     protected boolean isInvulnerable = false;
+    private TimerWheel.Timer invulnerabilityTimer = null;
     protected boolean isDead = false; // Entities that should be removed from the game (incl. universe & fishList)
 
+    FishType fishType = null; // The pool this fish is returned to when it dies, set by FishFactory
+
+    // BROADPHASE (maintained by the Broadphase in use)
+    long spawnOrder;
+    boolean inGrid = false; // SpatialHashGrid
+    int gridMinX, gridMinY, gridMaxX, gridMaxY;
+    int gridQueryStamp;
+    int broadphaseIndex = -1; // SweepAndPrune and BruteForceBroadphase
+    int boundsMinX, boundsMinY, boundsMaxX, boundsMaxY; // Inclusive
+
+    // STRUCTURE OF ARRAYS (maintained by FishStore)
+    int storeSlot = -1;
+    private final Rectangle broadphaseBounds = new Rectangle();
+    private final Rectangle spriteBounds = new Rectangle();
+
     private FishFactory factory;
 
     /**
      * Constructor that initializes a Fish object, adds the object to the universe and
      * the fishList.
      */
-    public Fish(Point2D position, Point2D size, Point2D velocity, int level, boolean addToUniverse, FishFactory factory, AppPanel appPanel) {
-        super(position, size, appPanel);
+    public Fish(Point2D position, Point2D size, Point2D velocity, int level, boolean addToUniverse, FishFactory factory, GameWorld world) {
+        super(position, size, world);
         this.velocity = velocity;
         this.level = level;
 
         colliderSize = size;
-        factory.getFishList().add(this);
+        factory.registerFish(this);
         this.factory = factory;
+        spawnOrder = factory.nextSpawnOrder();
 
         if (addToUniverse)
-            appPanel.getUniverse().addEntity(this);
+            world.getUniverse().addEntity(this);
     }
 
     /**
      * Constructor that initializes a Fish object, adds the object to the universe and
      * the fishList. This is for fish that have no specific velocity upon initialization
      */
-    public Fish(Point2D position, Point2D size, int level, boolean addToUniverse, FishFactory factory, AppPanel appPanel) {
-        super(position, size, appPanel);
+    public Fish(Point2D position, Point2D size, int level, boolean addToUniverse, FishFactory factory, GameWorld world) {
+        super(position, size, world);
         this.level = level;
 
         velocity = new Point2D(0, 0);
         colliderSize = size;
-        factory.getFishList().add(this);
+        factory.registerFish(this);
         this.factory = factory;
+        spawnOrder = factory.nextSpawnOrder();
 
         if (addToUniverse)
-            appPanel.getUniverse().addEntity(this);
+            world.getUniverse().addEntity(this);
     }
 
-    public Fish(Point2D position, Point2D size, int level, boolean addToUniverse, FishFactory factory, AppPanel appPanel, Sprite sprite, boolean flipSprite) {
-        super(position, size, sprite, appPanel);
+    public Fish(Point2D position, Point2D size, int level, boolean addToUniverse, FishFactory factory, GameWorld world, Sprite sprite, boolean flipSprite) {
+        super(position, size, sprite, world);
         this.level = level;
 
         velocity = new Point2D(0, 0);
         colliderSize = size;
         this.flipSprite = flipSprite;
-        factory.getFishList().add(this);
+        factory.registerFish(this);
         this.factory = factory;
+        spawnOrder = factory.nextSpawnOrder();
 
         if (addToUniverse)
-            appPanel.getUniverse().addEntity(this);
+            world.getUniverse().addEntity(this);
     }
 
-    public Fish(Point2D position, Point2D size, Point2D velocity, int level, boolean addToUniverse, FishFactory factory, AppPanel appPanel, Sprite sprite) {
-        super(position, size, sprite, appPanel);
+    public Fish(Point2D position, Point2D size, Point2D velocity, int level, boolean addToUniverse, FishFactory factory, GameWorld world, Sprite sprite) {
+        super(position, size, sprite, world);
         this.velocity = velocity;
         this.level = level;
 
         colliderSize = size; // Default size (if the size parameter is specified)
-        factory.getFishList().add(this);
+        factory.registerFish(this);
         this.factory = factory;
+        spawnOrder = factory.nextSpawnOrder();
 
         if (addToUniverse)
-            appPanel.getUniverse().addEntity(this);
+            world.getUniverse().addEntity(this);
     }
 
     /**
@@ -126,22 +146,31 @@ public class Fish extends Entity {
             move(velocity);
         }
         // Kill this fish if distance to the player is too great
-        if (!this.equals(appPanel.getPlayer())) {
-            if (appPanel.getPlayer().getPlayerCenter().distanceTo(this.position) > distanceOfRemoval) {
+        if (!this.equals(world.getPlayer())) {
+            if (world.getPlayer().getPlayerCenter().distanceTo(this.position) > distanceOfRemoval) {
                 isDead = true;
             }
         }
         updateBodyCollider();
         updateMouthCollider();
-
+        updateBroadphase();
         updateCollision();
     }
 
     /**
-     * Check mouth/body collision with all the other fish.
+     * Check mouth/body collision with the broadphase candidates of this fish.
      */
     protected void updateCollision() {
-        for(Fish other : factory.getFishList()) {
+        updateCollision(factory.getCollisionCandidates(this));
+    }
+
+    /**
+     * Check mouth/body collision with the given fish.
+     * @param candidates The fish that could be colliding with this fish.
+     */
+    protected void updateCollision(List<Fish> candidates) {
+        for(int i = 0; i < candidates.size(); i++) { // Indexed, so that no iterator is allocated every tick
+            Fish other = candidates.get(i);
             if (other.equals(this) || other.isDead) {
                 continue;
             }
@@ -151,6 +180,40 @@ public class Fish extends Entity {
 
     }
 
+    /**
+     * updateBroadphase method reports the area covered by the body and mouth colliders and the sprite of the fish to the
+     * broadphase. The sprite is included so that the broadphase can also be used to find the fish that are on screen.
+     */
+    protected void updateBroadphase() {
+        getColliderBounds(broadphaseBounds);
+        spriteBounds.setBounds((int) position.getX(), (int) position.getY(), (int) size.getX(), (int) size.getY());
+        if (broadphaseBounds.isEmpty()) {
+            broadphaseBounds.setBounds(spriteBounds);
+        } else if (!spriteBounds.isEmpty()) {
+            broadphaseBounds.add(spriteBounds);
+        }
+        factory.getBroadphase().update(this, broadphaseBounds);
+    }
+
+    /**
+     * getColliderBounds method calculates the smallest rectangle that contains both the body and the mouth collider.
+     * Empty colliders are ignored.
+     * @param bounds The rectangle to store the result in.
+     */
+    void getColliderBounds(Rectangle bounds) {
+        if (mouthCollider.isEmpty()) {
+            bounds.setBounds(bodyCollider);
+        } else if (bodyCollider.isEmpty()) {
+            bounds.setBounds(mouthCollider);
+        } else {
+            int minX = Math.min(bodyCollider.x, mouthCollider.x);
+            int minY = Math.min(bodyCollider.y, mouthCollider.y);
+            int maxX = Math.max(bodyCollider.x + bodyCollider.width, mouthCollider.x + mouthCollider.width);
+            int maxY = Math.max(bodyCollider.y + bodyCollider.height, mouthCollider.y + mouthCollider.height);
+            bounds.setBounds(minX, minY, maxX - minX, maxY - minY);
+        }
+    }
+
     /**
      * checkMouthCollision method handles the logic for if a fish eats another fish
      * @param other The other fish.
@@ -173,17 +236,63 @@ public class Fish extends Entity {
 
     }
 
+    /**
+     * respawn method resets a dead fish taken from the FishPool so that it behaves like a newly created fish, and adds it
+     * back to the fish list and the universe. The level, and therefore the size, is kept.
+     * @param x The new x position.
+     * @param y The new y position.
+     * @param velX The new x velocity.
+     * @param velY The new y velocity.
+     */
+    protected void respawn(double x, double y, double velX, double velY) {
+        position.setX(x);
+        position.setY(y);
+        savePreviousPosition();
+        velocity.setX(velX);
+        velocity.setY(velY);
+        facingRight = isFacingRight();
+
+        isDead = false;
+        isInvulnerable = false;
+        render = true;
+        bodyCollider.setBounds(0, 0, 0, 0);
+        mouthCollider.setBounds(0, 0, 0, 0);
+
+        spawnOrder = factory.nextSpawnOrder();
+        factory.registerFish(this);
+        world.getUniverse().addEntity(this);
+    }
+
+    /**
+     * usesFishStore method returns whether the FishStore may update this fish in place of update, i.e. whether the fish
+     * swims in a straight line and uses the collision handling of Fish. Fish that override update or the collision
+     * methods must return false.
+     * @return true if the fish can be updated by the FishStore.
+     */
+    protected boolean usesFishStore() {
+        return true;
+    }
+
+    /**
+     * isRecyclable method returns whether the fish can be put back in the FishPool once it is dead. Its timers are
+     * cancelled before it is released, so pending timed behaviour does not prevent reuse.
+     * @return true if the fish can be reused.
+     */
+    protected boolean isRecyclable() {
+        return true;
+    }
+
     /**
      * die method is called when a fish dies. This should, amongst other things, award xp to the player
      */
     public void die() {
         if (isDead) return;
         int experience = xpFromLevel(level);
-        appPanel.getPlayer().gainExperience(experience);
-        appPanel.getMovingTexts().add(
-                new MovingText(appPanel.getPlayer().position, movingTextVel, "+" + experience, movingTextSize, Color.WHITE)
+        world.getPlayer().gainExperience(experience);
+        world.getMovingTexts().add(
+                new MovingText(world.getMainCam().toScreen(world.getPlayer().position), movingTextVel, "+" + experience, movingTextSize, Color.WHITE)
         );
-        appPanel.getAudioLoader().playClip("BITE");
+        world.getAudioLoader().playClip("BITE");
         isDead = true;
     }
 
@@ -210,31 +319,27 @@ public class Fish extends Entity {
      * render method renders the sprite of the fish, depending on which way
      * it is facing.
      * @param g The graphics object.
+     * @param alpha The interpolation factor between the previous and the current tick (0-1).
      */
     @Override
-    public void render(Graphics g) {
+    public void render(Graphics g, double alpha) {
         if (!render) return;
+        int x = interpolatedX(alpha);
+        int y = interpolatedY(alpha);
         if(hasSprite()) {
-            if (facingRight != flipSprite)
-                g.drawImage(sprite.getBufferedImage(),
-                            (int)(position.getX() + size.getX()),
-                            (int)position.getY(),
-                            -(int)size.getX(),
-                            (int)size.getY(),
-                            null);
-            else
-                g.drawImage(sprite.getBufferedImage(),
-                            (int)position.getX(), (int)position.getY(),
-                            (int)size.getX(),
-                            (int)size.getY(),
-                            null);
+            // The sprite cache keeps a scaled and mirrored copy of the sprite, so this is a 1:1 copy
+            Image scaled = world.getImageManager().getSpriteCache().get(sprite,
+                                                                        (int)size.getX(),
+                                                                        (int)size.getY(),
+                                                                        facingRight != flipSprite);
+            g.drawImage(scaled, x, y, null);
         } else {
             g.setColor(Color.WHITE);
-            g.fillRect((int)position.getX(), (int)position.getY(), (int)size.getX(), (int)size.getY());
+            g.fillRect(x, y, (int)size.getX(), (int)size.getY());
         }
 
         // DEBUG COLLIDER BOUNDS
-        if (AppPanel.inDebugMode()) {
+        if (GameWorld.inDebugMode()) {
             renderColliderBounds(g);
         }
     }
@@ -286,8 +391,8 @@ public class Fish extends Entity {
      */
     @Override
     protected void remove() {
-        appPanel.getUniverse().removeEntity(this);
-        factory.getFishList().remove(this);
+        world.getRegistry().remove(this);
+        factory.getBroadphase().remove(this);
     }
 
     /**
@@ -295,8 +400,6 @@ public class Fish extends Entity {
      * @param durationInSeconds The blink duration in seconds.
      */
     public void grantInvulnerability(float durationInSeconds) {
-        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-
         final Runnable turnOffInvulnerability = new Runnable()
         {
             @Override public void run() {
@@ -305,7 +408,20 @@ public class Fish extends Entity {
         };
         if (!isInvulnerable) {
             isInvulnerable = true;
-            scheduler.schedule(turnOffInvulnerability, (long) (1000 * durationInSeconds), TimeUnit.MILLISECONDS);
+            TimerWheel timerWheel = world.getTimerWheel();
+            invulnerabilityTimer = timerWheel.schedule(turnOffInvulnerability, timerWheel.secondsToTicks(durationInSeconds));
+        }
+    }
+
+    /**
+     * cancelTimers method stops the blinking and the invulnerability timer of the fish.
+     */
+    @Override
+    protected void cancelTimers() {
+        super.cancelTimers();
+        if (invulnerabilityTimer != null) {
+            invulnerabilityTimer.cancel();
+            invulnerabilityTimer = null;
         }
     }
 
@@ -328,6 +444,49 @@ public class Fish extends Entity {
         return bodyCollider.intersects(other.mouthCollider);
     }
 
+    /**
+     * hasSweptMouthCollision method returns true if the mouthCollider touched the bodyCollider of another fish at any
+     * point while moving in a straight line to where it is now. This catches fish that a fast moving mouth would
+     * otherwise pass through between two ticks.
+     * @param other The other fish.
+     * @param dx How far the mouth moved along the x-axis this tick.
+     * @param dy How far the mouth moved along the y-axis this tick.
+     * @return true if the mouth overlapped the body of the other fish somewhere along the path.
+     */
+    protected boolean hasSweptMouthCollision(Fish other, double dx, double dy) {
+        Rectangle target = other.bodyCollider;
+        if (mouthCollider.isEmpty() || target.isEmpty()) return false;
+        if (mouthCollider.intersects(target)) return true;
+
+        // Move the mouth's corner along the path, against the target grown by the size of the mouth
+        double startX = mouthCollider.x - dx;
+        double startY = mouthCollider.y - dy;
+        double minX = target.x - mouthCollider.width;
+        double maxX = target.x + target.width;
+        double minY = target.y - mouthCollider.height;
+        double maxY = target.y + target.height;
+
+        double enter = 0;
+        double exit = 1;
+        if (dx == 0) {
+            if (startX <= minX || startX >= maxX) return false;
+        } else {
+            double t1 = (minX - startX) / dx;
+            double t2 = (maxX - startX) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (startY <= minY || startY >= maxY) return false;
+        } else {
+            double t1 = (minY - startY) / dy;
+            double t2 = (maxY - startY) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        return enter < exit;
+    }
+
 
     /**
      * Return whether or not a fish should be facing left or right, based on its velocity.
@@ -342,5 +501,9 @@ public class Fish extends Entity {
         return velocity;
     }
 
+    public int getLevel() {
+        return level;
+    }
+
 
 }
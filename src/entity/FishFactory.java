@@ -1,9 +1,11 @@
 package entity;
 
-import game.AppPanel;
+import game.FrameProfiler;
+import game.GameWorld;
 import util.Point2D;
-import util.PropertiesLoaderBorrowedCode;
+import util.Settings;
 
+import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -13,30 +15,46 @@ import java.util.Random;
  */
 public class FishFactory {
 
-    private static final Random RANDOM = new Random();
-    private PropertiesLoaderBorrowedCode defaultSettings = new PropertiesLoaderBorrowedCode("src/defaultsettings");
+    private final EntityRegistry.View<Fish> fishList;
+    private final int gridCellSize;
+    private Broadphase broadphase;
+    private final FishPool fishPool;
+    private final Random random; // The random generator of the world, so that a seeded game spawns the same fish
+    private final List<Fish> collisionCandidates = new ArrayList<>();
+    private final Rectangle queryBounds = new Rectangle();
+    private long spawnCount = 0;
+    private FishStore fishStore = null; // Only used if enabled in the settings
 
-    private List<Fish> fishList = new ArrayList<>();
+    private final int screenMargin; // Dictates how far away from the outside of the screen that fish should spawn
+    private final int barracudaAdditionalMargin;
+    private final float fishSpeed;
 
-    private final int screenMargin = (int) defaultSettings.getValue("fishFactory.screenMargin", int.class); // Dictates how far away from the outside of the screen that fish should spawn
-    private final int barracudaAdditionalMargin = (int) defaultSettings.getValue("fishFactory.barracuda.additionalMargin", int.class);
-    private final float fishSpeed = (float) defaultSettings.getValue("fishFactory.fishSpeed", float.class);
-
-    private AppPanel appPanel;
+    private GameWorld world;
     private float barracudaSpawnRate;
     private float largeSpawnRate;
     private float mediumSpawnRate;
     private float schoolSpawnRate;
 
     /**
-     * Read spawn rates from props.
+     * Read spawn rates from the settings.
      */
-    public FishFactory (AppPanel appPanel) {
-        this.appPanel = appPanel;
-        barracudaSpawnRate = (float) defaultSettings.getValue("barracuda.spawnRate", float.class);
-	largeSpawnRate = (float) defaultSettings.getValue("basicEnemy.large.spawnRate", float.class);
-	mediumSpawnRate = (float) defaultSettings.getValue("basicEnemy.medium.spawnRate", float.class);
-	schoolSpawnRate = (float) defaultSettings.getValue("basicEnemy.school.spawnRate", float.class);
+    public FishFactory (GameWorld world) {
+        this.world = world;
+        random = world.getRandom();
+        fishList = world.getRegistry().view(Fish.class, EntityRegistry.FISH);
+        Settings settings = world.getSettings();
+        screenMargin = settings.getSpawnScreenMargin();
+        barracudaAdditionalMargin = settings.getBarracudaAdditionalMargin();
+        fishSpeed = settings.getFishSpeed();
+        barracudaSpawnRate = settings.getBarracudaSpawnRate();
+	largeSpawnRate = settings.getLargeSpawnRate();
+	mediumSpawnRate = settings.getMediumSpawnRate();
+	schoolSpawnRate = settings.getSchoolSpawnRate();
+	gridCellSize = settings.getCollisionGridCellSize();
+	broadphase = createBroadphase(settings.getBroadphase());
+	fishPool = new FishPool(settings.getFishPoolMaxSize());
+	setFishStoreEnabled(settings.getFishStore());
+	setParallelUpdate(settings.getParallelCollision());
     }
 
     /**
@@ -45,53 +63,80 @@ public class FishFactory {
      * @return Fish, the new fish.
      */
     public Fish getFish(FishType fishType) {
-	int direction = RANDOM.nextBoolean() ? 1 : -1;
-	int xPos = direction == 1 ? -screenMargin : appPanel.getScreenWidth() + screenMargin;
+	int direction = random.nextBoolean() ? 1 : -1;
+	int xPos = direction == 1 ? -screenMargin : world.getScreenWidth() + screenMargin; // Relative to the screen
+
+	// Fish live in world coordinates, so spawn relative to where the camera currently is
+	Point2D cameraPosition = world.getMainCam().getPosition();
+	double spawnX = xPos + cameraPosition.getX();
+	double top = cameraPosition.getY();
 
 	final float yVelOffset = 0.5f; 
 	
         switch(fishType) {
 	    case SMALL_FISH:
-	        return new BasicEnemy(
-	        	new Point2D(xPos, RANDOM.nextDouble() * appPanel.getMapHeight()),
-			new Point2D(),
-			new Point2D(fishSpeed * direction, RANDOM.nextDouble() - yVelOffset),
-			1, this, appPanel
-		);
+	        return obtainBasicEnemy(fishType, spawnX, top + random.nextDouble() * world.getMapHeight(),
+					fishSpeed * direction, random.nextDouble() - yVelOffset, 1);
 	    case MEDIUM_FISH:
-		return new BasicEnemy(
-			new Point2D(xPos, RANDOM.nextDouble() * appPanel.getMapHeight()),
-			new Point2D(),
-			new Point2D(fishSpeed * direction, RANDOM.nextDouble() - yVelOffset),
-			2, this, appPanel
-		);
+		return obtainBasicEnemy(fishType, spawnX, top + random.nextDouble() * world.getMapHeight(),
+					fishSpeed * direction, random.nextDouble() - yVelOffset, 2);
 	    case LARGE_FISH:
-		return new BasicEnemy(
-			new Point2D(xPos, RANDOM.nextDouble() * appPanel.getMapHeight()),
-			new Point2D(),
-			new Point2D(fishSpeed * direction, RANDOM.nextDouble() - yVelOffset),
-			3, this, appPanel
-		);
-	    case BARRACUDA:
+		return obtainBasicEnemy(fishType, spawnX, top + random.nextDouble() * world.getMapHeight(),
+					fishSpeed * direction, random.nextDouble() - yVelOffset, 3);
+	    case BARRACUDA: {
 	        final int vel = 7;
-	        return new Barracuda(
-			new Point2D(xPos + barracudaAdditionalMargin * Math.signum(xPos), RANDOM.nextDouble() * appPanel.getMapHeight()),
-			new Point2D(),
-			new Point2D(vel * direction, 0), true, this, appPanel
-		);
-	    case SCHOOL:
+		double x = spawnX + barracudaAdditionalMargin * Math.signum(xPos);
+		double y = top + random.nextDouble() * world.getMapHeight();
+		Fish barracuda = fishPool.acquire(fishType);
+		if (barracuda != null) {
+		    barracuda.respawn(x, y, vel * direction, 0);
+		} else {
+		    barracuda = new Barracuda(new Point2D(x, y), new Point2D(), new Point2D(vel * direction, 0), true, this, world);
+		    barracuda.fishType = fishType;
+		}
+		return barracuda;
+	    }
+	    case SCHOOL: {
 	        final int schoolCountVariation = 4;
 	        final int schoolCountLowest = 3;
-	        return new School(
-			new Point2D(xPos, RANDOM.nextDouble() * appPanel.getMapHeight()),
-			new Point2D(),
-			new Point2D(fishSpeed * direction, RANDOM.nextDouble() - yVelOffset),
-			this, appPanel,
-			schoolCountLowest + (int)(Math.random() * schoolCountVariation) // 3-7
-		);
+		double y = top + random.nextDouble() * world.getMapHeight();
+		double yVelocity = random.nextDouble() - yVelOffset;
+		int count = schoolCountLowest + random.nextInt(schoolCountVariation); // 3-6
+		School school = (School) fishPool.acquire(fishType);
+		if (school != null) {
+		    school.respawn(spawnX, y, fishSpeed * direction, yVelocity, count);
+		} else {
+		    school = new School(new Point2D(spawnX, y), new Point2D(), new Point2D(fishSpeed * direction, yVelocity),
+					this, world, count);
+		    school.fishType = fishType;
+		}
+		return school;
+	    }
 
 	}
-	return new Fish(new Point2D(), new Point2D(), new Point2D(), 0, false, this, appPanel);
+	return new Fish(new Point2D(), new Point2D(), new Point2D(), 0, false, this, world);
+    }
+
+    /**
+     * obtainBasicEnemy method reuses a basic enemy from the pool of the given type, or creates a new one if the pool is
+     * empty.
+     * @param fishType The pool to take the fish from.
+     * @param x The x position.
+     * @param y The y position.
+     * @param velX The x velocity.
+     * @param velY The y velocity.
+     * @param level The level of the fish. Must match the fish type.
+     * @return Fish, the spawned fish.
+     */
+    Fish obtainBasicEnemy(FishType fishType, double x, double y, double velX, double velY, int level) {
+	Fish fish = fishPool.acquire(fishType);
+	if (fish != null) {
+	    fish.respawn(x, y, velX, velY);
+	} else {
+	    fish = new BasicEnemy(new Point2D(x, y), new Point2D(), new Point2D(velX, velY), level, this, world);
+	    fish.fishType = fishType;
+	}
+	return fish;
     }
 
     /**
@@ -99,13 +144,13 @@ public class FishFactory {
      * @param SpawnRate the rate (or frequency) of which fish should spawn.
      */
     public void spawnFishAroundPlayer(float spawnRate) {
-	if (RANDOM.nextFloat() > spawnRate)
+	if (random.nextFloat() > spawnRate)
 	    return;
 
-	if (Math.random() <= barracudaSpawnRate) { // 20% chance to spawn
+	if (random.nextDouble() <= barracudaSpawnRate) { // 20% chance to spawn
 	    getFish(FishType.BARRACUDA);
 	}
-	float spawnChance = RANDOM.nextFloat();
+	float spawnChance = random.nextFloat();
 	if (spawnChance < largeSpawnRate) { // 20% chance to spawn
 	    getFish(FishType.LARGE_FISH);
 	}
@@ -122,24 +167,160 @@ public class FishFactory {
     }
 
     /**
-     * removeDead method removes fish that are marked as dead from the FishList and Universe. This has no effect on the player.
+     * removeDead method removes fish that are marked as dead from the FishList and Universe, and hands them to the fish
+     * pool so that they can be reused. This has no effect on the player.
      */
     public void removeDead() {
-	List<Fish> toRemove = new ArrayList<>();
 	for(Fish fish : fishList){
-	    if (fish.isDead && !(fish.equals(appPanel.getPlayer()))) {
-		toRemove.add(fish);
+	    if (fish.isDead && !(fish.equals(world.getPlayer()))) {
+		world.getRegistry().remove(fish);
+		broadphase.remove(fish);
+		if (fishStore != null) fishStore.remove(fish);
+		fish.cancelTimers(); // Timers must not fire on a fish that is dead, or has been reused
+		fishPool.release(fish);
 	    }
 	}
-	for (Fish fish : toRemove) {
-	    appPanel.getUniverse().getEntities().remove(fish);
-	    fishList.remove(fish);
+	world.getRegistry().compact();
+    }
+
+    /**
+     * registerFish method adds a fish to the fish list.
+     * @param fish The fish to add.
+     */
+    void registerFish(Fish fish) {
+	world.getRegistry().add(fish, EntityRegistry.FISH);
+	if (fishStore != null) fishStore.register(fish);
+    }
+
+    /**
+     * updateFish method updates every fish in the fish list, in order. With the fish store enabled, the fish that swim in
+     * a straight line are moved and collided by the store, see FishStore, which can also do so in parallel.
+     * The pass is profiled as a whole as the collision phase. Each fish moves and collides in turn, so the two cannot be
+     * timed apart without timing every fish, which would skew the measurement.
+     */
+    public void updateFish() {
+	FrameProfiler profiler = world.getProfiler();
+	profiler.begin(FrameProfiler.Phase.COLLISION);
+	if (fishStore != null) {
+	    fishStore.update(fishList);
+	} else {
+	    for (Fish fish : fishList) {
+		fish.update();
+	    }
+	}
+	profiler.end(FrameProfiler.Phase.COLLISION);
+    }
+
+    /**
+     * setFishStoreEnabled method turns the fish store on or off. The fish that are alive are moved to or from the store.
+     * @param enabled Whether to use the fish store.
+     */
+    public void setFishStoreEnabled(boolean enabled) {
+	if (enabled == (fishStore != null)) return;
+	if (!enabled && fishStore.isParallel()) throw new IllegalStateException("The parallel update needs the fish store");
+	if (enabled) {
+	    fishStore = new FishStore(world, this);
+	    for (Fish fish : fishList) {
+		fishStore.register(fish);
+	    }
+	} else {
+	    fishStore.clear();
+	    fishStore = null;
 	}
     }
 
-    public List<Fish> getFishList() {
+    public boolean isFishStoreEnabled() {
+	return fishStore != null;
+    }
+
+    /**
+     * setParallelUpdate method turns the parallel update of the fish on or off, see FishStore. Turning it on also turns
+     * on the fish store.
+     * @param parallel Whether to update the fish in parallel.
+     */
+    public void setParallelUpdate(boolean parallel) {
+	if (parallel) setFishStoreEnabled(true);
+	if (fishStore != null) fishStore.setParallel(parallel);
+    }
+
+    public boolean isParallelUpdate() {
+	return fishStore != null && fishStore.isParallel();
+    }
+
+    /**
+     * getCollisionCandidates method returns the fish that could be colliding with the given fish, as found by the
+     * broadphase. The returned list is reused between calls.
+     * @param fish The fish to find candidates for.
+     * @return List<Fish>, the candidates in spawn order.
+     */
+    public List<Fish> getCollisionCandidates(Fish fish) {
+	fish.getColliderBounds(queryBounds);
+	return getCollisionCandidates(queryBounds);
+    }
+
+    /**
+     * getCollisionCandidates method returns the fish that could overlap the given area, as found by the broadphase. The
+     * returned list is reused between calls.
+     * @param bounds The area to search.
+     * @return List<Fish>, the candidates in spawn order.
+     */
+    public List<Fish> getCollisionCandidates(Rectangle bounds) {
+	broadphase.query(bounds, collisionCandidates);
+	return collisionCandidates;
+    }
+
+    /**
+     * nextSpawnOrder method returns a number that is unique for every fish created by this factory, and that increases
+     * with each new fish.
+     * @return long, the spawn order.
+     */
+    long nextSpawnOrder() {
+	return spawnCount++;
+    }
+
+    public EntityRegistry.View<Fish> getFishList() {
 	return fishList;
     }
 
+    public FishPool getFishPool() {
+	return fishPool;
+    }
+
+    /**
+     * createBroadphase method creates the broadphase with the given name: "grid" for the SpatialHashGrid,
+     * "sweepAndPrune" for SweepAndPrune and "bruteForce" for BruteForceBroadphase.
+     * @param name The name of the broadphase, as in the settings.
+     * @return Broadphase, a new and empty broadphase.
+     * @throws IllegalArgumentException If the name is unknown.
+     */
+    private Broadphase createBroadphase(String name) {
+	switch (name) {
+	    case "grid":
+		return new SpatialHashGrid(gridCellSize);
+	    case "sweepAndPrune":
+		return new SweepAndPrune();
+	    case "bruteForce":
+		return new BruteForceBroadphase();
+	    default:
+		throw new IllegalArgumentException("Unknown collision.broadphase: " + name);
+	}
+    }
+
+    /**
+     * setBroadphase method switches to another broadphase. The fish that are alive are moved to it.
+     * @param name The name of the broadphase, see createBroadphase.
+     */
+    public void setBroadphase(String name) {
+	Broadphase previous = broadphase;
+	broadphase = createBroadphase(name);
+	for (Fish fish : fishList) {
+	    previous.remove(fish);
+	    fish.updateBroadphase();
+	}
+    }
+
+    public Broadphase getBroadphase() {
+	return broadphase;
+    }
 
 }
@@ -0,0 +1,75 @@
+package entity;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The FishPool class keeps dead fish around so that FishFactory can reuse them instead of creating new objects. There is
+ * one pool per FishType, each holding at most a fixed number of fish. Hits (a fish was reused) and misses (a new fish had
+ * to be created) are counted per type.
+ */
+public class FishPool {
+
+    private final int maxSize;
+    private final Map<FishType, Deque<Fish>> pools = new EnumMap<>(FishType.class);
+    private final Map<FishType, long[]> counters = new EnumMap<>(FishType.class); // {hits, misses}
+
+    public FishPool(int maxSize) {
+        this.maxSize = maxSize;
+        for (FishType type : FishType.values()) {
+            pools.put(type, new ArrayDeque<>());
+            counters.put(type, new long[2]);
+        }
+    }
+
+    /**
+     * acquire method takes a fish of the given type from the pool, if there is one.
+     * @param type The type of fish.
+     * @return Fish, a dead fish that has to be respawned before use, or null if the pool is empty.
+     */
+    public Fish acquire(FishType type) {
+        Fish fish = pools.get(type).poll();
+        counters.get(type)[fish != null ? 0 : 1]++;
+        return fish;
+    }
+
+    /**
+     * release method returns a dead fish to the pool of its type. Fish that have no type, or that are not in a state
+     * where they can be reused, are dropped.
+     * @param fish The fish to release.
+     */
+    public void release(Fish fish) {
+        if (fish.fishType == null || !fish.isRecyclable()) return;
+
+        Deque<Fish> pool = pools.get(fish.fishType);
+        if (pool.size() < maxSize) {
+            pool.push(fish);
+        }
+    }
+
+    public long getHits(FishType type) {
+        return counters.get(type)[0];
+    }
+
+    public long getMisses(FishType type) {
+        return counters.get(type)[1];
+    }
+
+    public long getTotalHits() {
+        long hits = 0;
+        for (long[] counter : counters.values()) hits += counter[0];
+        return hits;
+    }
+
+    public long getTotalMisses() {
+        long misses = 0;
+        for (long[] counter : counters.values()) misses += counter[1];
+        return misses;
+    }
+
+    public int getPooledCount(FishType type) {
+        return pools.get(type).size();
+    }
+}
@@ -0,0 +1,470 @@
+package entity;
+
+import game.GameWorld;
+import util.Point2D;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The FishStore class keeps the position, velocity and colliders of every fish in a structure of arrays: one primitive
+ * array per field, indexed by the slot of the fish. The fish that swim in a straight line (see Fish.usesFishStore) are
+ * moved in one tight loop over these arrays, and their mouths are tested against the bodies of other fish without going
+ * through a Rectangle object for every pair.
+ * The Fish objects stay the interface for everything else. The store writes the new position and colliders back to a
+ * fish when it is that fish's turn in the update, so that the behaviour code of Barracuda and Player, the broadphase and the
+ * rendering see the same state, in the same order, as without the store. A game therefore plays out the same way with
+ * the store on or off.
+ * Fish that have their own behaviour are updated by their own update method. Only their colliders are copied into the
+ * store, since that is all that other fish test against.
+ *
+ * In parallel mode the tick is split into phases. The plain fish are moved and their colliders rebuilt on the
+ * ForkJoinPool. Then, on the game thread and in list order, they are written back, and the other fish run their own
+ * update, which is where the player eats and gains experience. After that the fish that a plain fish eats are detected
+ * on the ForkJoinPool, each task only marking the fish of its own slots, and the kills are applied on the game thread.
+ * The plain fish then collide after every fish has moved, instead of one by one, so a game plays out differently than
+ * in the serial mode. The result does not depend on the number of threads, though, so it is still deterministic.
+ */
+class FishStore {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int PARALLEL_THRESHOLD = 512; // Fewest slots handled by one task in parallel mode
+
+    private enum ParallelPhase { MOVE, DETECT }
+
+    private final GameWorld world;
+    private final FishFactory factory;
+    private final List<Fish> pending = new ArrayList<>(); // Fish registered since the last update
+    private final ThreadLocal<List<Fish>> candidates = ThreadLocal.withInitial(ArrayList::new); // Used by DETECT
+    private boolean parallel = false;
+
+    private Fish[] fish = new Fish[INITIAL_CAPACITY];
+    private boolean[] plain = new boolean[INITIAL_CAPACITY]; // Moved and collided by the store
+    private int count = 0;
+
+    // Kinematics
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] vx = new double[INITIAL_CAPACITY];
+    private double[] vy = new double[INITIAL_CAPACITY];
+    private boolean[] facingRight = new boolean[INITIAL_CAPACITY];
+
+    // Shape, which does not change while a plain fish is alive
+    private double[] width = new double[INITIAL_CAPACITY];
+    private double[] height = new double[INITIAL_CAPACITY];
+    private double[] colliderWidth = new double[INITIAL_CAPACITY];
+    private double[] colliderHeight = new double[INITIAL_CAPACITY];
+    private double[] colliderOffsetX = new double[INITIAL_CAPACITY];
+    private double[] colliderOffsetY = new double[INITIAL_CAPACITY];
+    private int[] mouthSize = new int[INITIAL_CAPACITY];
+    private int[] mouthOffsetY = new int[INITIAL_CAPACITY];
+
+    // Colliders, as last written back to the fish
+    private int[] bodyX = new int[INITIAL_CAPACITY];
+    private int[] bodyY = new int[INITIAL_CAPACITY];
+    private int[] bodyWidth = new int[INITIAL_CAPACITY];
+    private int[] bodyHeight = new int[INITIAL_CAPACITY];
+    private int[] mouthX = new int[INITIAL_CAPACITY];
+    private int[] mouthY = new int[INITIAL_CAPACITY];
+    private int[] mouthWidth = new int[INITIAL_CAPACITY];
+    private int[] mouthHeight = new int[INITIAL_CAPACITY];
+
+    private boolean[] eaten = new boolean[INITIAL_CAPACITY]; // Found by DETECT, applied by resolve
+    private final int distanceOfRemoval;
+
+    FishStore(GameWorld world, FishFactory factory) {
+        this.world = world;
+        this.factory = factory;
+        distanceOfRemoval = world.getSettings().getFishDistanceOfRemoval();
+    }
+
+    /**
+     * register method queues a new or respawned fish. It is added to the store at the start of the next update, when
+     * its constructor has finished setting its size.
+     * @param f The fish.
+     */
+    void register(Fish f) {
+        pending.add(f);
+    }
+
+    /**
+     * remove method frees the slot of a fish. The last fish is moved into the slot, so the arrays stay dense.
+     * @param f The fish.
+     */
+    void remove(Fish f) {
+        int slot = f.storeSlot;
+        if (slot < 0) {
+            pending.remove(f);
+            return;
+        }
+        int last = --count;
+        if (slot != last) {
+            moveSlot(last, slot);
+            fish[slot].storeSlot = slot;
+        }
+        fish[last] = null;
+        f.storeSlot = -1;
+    }
+
+    /**
+     * clear method empties the store, e.g. when it is turned off.
+     */
+    void clear() {
+        for (int i = 0; i < count; i++) {
+            fish[i].storeSlot = -1;
+            fish[i] = null;
+        }
+        count = 0;
+        pending.clear();
+    }
+
+    /**
+     * update method updates every fish of the list, in the order of the list. The plain fish are moved first, in one
+     * loop. Then, in list order, each plain fish is checked for despawning, written back and collided, and every other
+     * fish runs its own update.
+     * @param fishList The fish to update.
+     */
+    void update(EntityRegistry.View<Fish> fishList) {
+        addPending();
+        for (int i = 0; i < count; i++) {
+            if (!plain[i]) copyColliders(i); // The player is also updated outside of the fish list
+        }
+        if (parallel) {
+            updateParallel(fishList);
+            return;
+        }
+        integrate(0, count);
+
+        for (Fish f : fishList) {
+            int slot = f.storeSlot;
+            if (plain[slot]) {
+                despawn(f, slot);
+                rebuildColliders(slot);
+                writeBack(f, slot);
+                collide(f, slot);
+            } else {
+                f.update();
+                copyColliders(slot);
+            }
+        }
+    }
+
+    /**
+     * updateParallel method is update in parallel mode, see the class comment.
+     */
+    private void updateParallel(EntityRegistry.View<Fish> fishList) {
+        runPhase(ParallelPhase.MOVE);
+
+        for (Fish f : fishList) {
+            int slot = f.storeSlot;
+            if (plain[slot]) {
+                despawn(f, slot);
+                writeBack(f, slot);
+            } else {
+                f.update();
+                copyColliders(slot);
+            }
+        }
+
+        runPhase(ParallelPhase.DETECT);
+        for (int i = 0; i < count; i++) { // Resolve
+            if (eaten[i]) fish[i].isDead = true;
+        }
+    }
+
+    /**
+     * runPhase method runs a parallel phase over every slot. Small stores are handled on the calling thread, where
+     * splitting the work would cost more than it saves.
+     */
+    private void runPhase(ParallelPhase phase) {
+        if (count < 2 * PARALLEL_THRESHOLD) {
+            runPhase(phase, 0, count);
+        } else {
+            ForkJoinPool.commonPool().invoke(new PhaseTask(phase, 0, count));
+        }
+    }
+
+    private void runPhase(ParallelPhase phase, int from, int to) {
+        switch (phase) {
+            case MOVE:
+                integrate(from, to);
+                for (int i = from; i < to; i++) {
+                    if (plain[i]) rebuildColliders(i);
+                }
+                break;
+            case DETECT:
+                for (int i = from; i < to; i++) {
+                    eaten[i] = detectEaten(i);
+                }
+                break;
+        }
+    }
+
+    /**
+     * The PhaseTask class splits the slots of a parallel phase in halves until they are small enough to be handled by a
+     * single task.
+     */
+    private final class PhaseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ParallelPhase phase;
+        private final int from;
+        private final int to;
+
+        PhaseTask(ParallelPhase phase, int from, int to) {
+            this.phase = phase;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < 2 * PARALLEL_THRESHOLD) {
+                runPhase(phase, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new PhaseTask(phase, from, middle), new PhaseTask(phase, middle, to));
+        }
+    }
+
+    /**
+     * integrate method moves the plain fish in the given slots by their velocity. Same as Fish.update: the fish faces the
+     * way it swims.
+     */
+    private void integrate(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!plain[i]) continue;
+            facingRight[i] = vx[i] > 0;
+            x[i] += vx[i];
+            y[i] += vy[i];
+        }
+    }
+
+    /**
+     * despawn method kills a plain fish if it is too far from the player, like Fish.update.
+     */
+    private void despawn(Fish f, int slot) {
+        Point2D playerCenter = world.getPlayer().getPlayerCenter();
+        double dx = playerCenter.getX() - x[slot];
+        double dy = playerCenter.getY() - y[slot];
+        if (Math.sqrt(dx*dx + dy*dy) > distanceOfRemoval) {
+            f.isDead = true;
+        }
+    }
+
+    /**
+     * rebuildColliders method calculates the colliders of a plain fish from its position, the same way as
+     * Fish.updateBodyCollider and Fish.updateMouthCollider.
+     */
+    private void rebuildColliders(int slot) {
+        int bx = (int) ((x[slot] + (width[slot] - colliderWidth[slot]) / 2) + colliderOffsetX[slot]);
+        int by = (int) ((y[slot] + (height[slot] - colliderHeight[slot]) / 2) + colliderOffsetY[slot]);
+        int mouth = mouthSize[slot];
+        int mx = (int) x[slot];
+        if (facingRight[slot]) mx += (int) (width[slot] - mouth);
+
+        bodyX[slot] = bx;
+        bodyY[slot] = by;
+        bodyWidth[slot] = (int) colliderWidth[slot];
+        bodyHeight[slot] = (int) colliderHeight[slot];
+        mouthX[slot] = mx;
+        mouthY[slot] = (int) (by + (colliderHeight[slot] - mouth) / 2) + mouthOffsetY[slot];
+        mouthWidth[slot] = mouth;
+        mouthHeight[slot] = mouth;
+    }
+
+    /**
+     * writeBack method writes the position and the colliders of a plain fish to the fish, and updates it in the broadphase.
+     */
+    private void writeBack(Fish f, int slot) {
+        f.position.set(x[slot], y[slot]);
+        f.facingRight = facingRight[slot];
+        f.bodyCollider.setBounds(bodyX[slot], bodyY[slot], bodyWidth[slot], bodyHeight[slot]);
+        f.mouthCollider.setBounds(mouthX[slot], mouthY[slot], mouthWidth[slot], mouthHeight[slot]);
+        f.updateBroadphase();
+    }
+
+    /**
+     * collide method does what Fish.updateCollision does for a plain fish: it eats the fish of a lower level whose body
+     * its mouth overlaps. The bodies are read from the store.
+     */
+    private void collide(Fish f, int slot) {
+        List<Fish> candidates = factory.getCollisionCandidates(f);
+        for (int i = 0; i < candidates.size(); i++) {
+            Fish other = candidates.get(i);
+            if (other == f || other.isDead || other.isInvulnerable || f.level <= other.level) continue;
+            int o = other.storeSlot;
+            if (intersects(mouthX[slot], mouthY[slot], mouthWidth[slot], mouthHeight[slot],
+                           bodyX[o], bodyY[o], bodyWidth[o], bodyHeight[o])) {
+                other.isDead = true;
+            }
+        }
+    }
+
+    /**
+     * detectEaten method returns whether the mouth of a plain fish overlaps the body of the fish in the given slot, and
+     * the plain fish would eat it. This is collide seen from the other side: a mouth that overlaps the body is part of the
+     * area its fish reported to the broadphase, so the plain fish are found by searching the broadphase around the body.
+     * Only the broadphase and the store are read, and the slot is the only one written, so it can run for many slots at
+     * once.
+     * @param slot The slot of the fish that might be eaten.
+     * @return true if the fish is eaten.
+     */
+    private boolean detectEaten(int slot) {
+        Fish target = fish[slot];
+        if (target.isInvulnerable) return false;
+
+        List<Fish> found = candidates.get();
+        factory.getBroadphase().queryUnordered(bodyX[slot], bodyY[slot], bodyWidth[slot], bodyHeight[slot], found);
+        boolean isEaten = false;
+        for (int i = 0; i < found.size() && !isEaten; i++) {
+            Fish other = found.get(i);
+            int o = other.storeSlot;
+            if (o == slot || !plain[o] || other.level <= target.level) continue;
+            isEaten = intersects(mouthX[o], mouthY[o], mouthWidth[o], mouthHeight[o],
+                                 bodyX[slot], bodyY[slot], bodyWidth[slot], bodyHeight[slot]);
+        }
+        found.clear(); // Do not keep fish alive through the thread local
+        return isEaten;
+    }
+
+    /**
+     * intersects method is Rectangle.intersects on primitive bounds, including its handling of empty rectangles and
+     * overflow.
+     * @return true if the rectangles overlap.
+     */
+    static boolean intersects(int tx, int ty, int tw, int th, int rx, int ry, int rw, int rh) {
+        if (rw <= 0 || rh <= 0 || tw <= 0 || th <= 0) return false;
+        rw += rx;
+        rh += ry;
+        tw += tx;
+        th += ty;
+        return ((rw < rx || rw > tx) &&
+                (rh < ry || rh > ty) &&
+                (tw < tx || tw > rx) &&
+                (th < ty || th > ry));
+    }
+
+    /**
+     * addPending method adds the fish registered since the last update, reading their state from the Fish objects.
+     */
+    private void addPending() {
+        for (int i = 0; i < pending.size(); i++) {
+            Fish f = pending.get(i);
+            if (f.storeSlot >= 0) continue;
+            if (count == fish.length) grow();
+            int slot = count++;
+            fish[slot] = f;
+            f.storeSlot = slot;
+            plain[slot] = f.usesFishStore() && f.velocity != null;
+            x[slot] = f.position.getX();
+            y[slot] = f.position.getY();
+            if (f.velocity != null) {
+                vx[slot] = f.velocity.getX();
+                vy[slot] = f.velocity.getY();
+            }
+            facingRight[slot] = f.facingRight;
+            width[slot] = f.size.getX();
+            height[slot] = f.size.getY();
+            colliderWidth[slot] = f.colliderSize.getX();
+            colliderHeight[slot] = f.colliderSize.getY();
+            colliderOffsetX[slot] = f.colliderOffset.getX();
+            colliderOffsetY[slot] = f.colliderOffset.getY();
+            mouthSize[slot] = f.mouthSize;
+            mouthOffsetY[slot] = f.mouthOffsetY;
+            copyColliders(slot);
+        }
+        pending.clear();
+    }
+
+    /**
+     * copyColliders method reads the colliders of a fish from its Rectangles.
+     */
+    private void copyColliders(int slot) {
+        Rectangle body = fish[slot].bodyCollider;
+        Rectangle mouth = fish[slot].mouthCollider;
+        bodyX[slot] = body.x;
+        bodyY[slot] = body.y;
+        bodyWidth[slot] = body.width;
+        bodyHeight[slot] = body.height;
+        mouthX[slot] = mouth.x;
+        mouthY[slot] = mouth.y;
+        mouthWidth[slot] = mouth.width;
+        mouthHeight[slot] = mouth.height;
+    }
+
+    private void moveSlot(int from, int to) {
+        fish[to] = fish[from];
+        plain[to] = plain[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        vx[to] = vx[from];
+        vy[to] = vy[from];
+        facingRight[to] = facingRight[from];
+        width[to] = width[from];
+        height[to] = height[from];
+        colliderWidth[to] = colliderWidth[from];
+        colliderHeight[to] = colliderHeight[from];
+        colliderOffsetX[to] = colliderOffsetX[from];
+        colliderOffsetY[to] = colliderOffsetY[from];
+        mouthSize[to] = mouthSize[from];
+        mouthOffsetY[to] = mouthOffsetY[from];
+        bodyX[to] = bodyX[from];
+        bodyY[to] = bodyY[from];
+        bodyWidth[to] = bodyWidth[from];
+        bodyHeight[to] = bodyHeight[from];
+        mouthX[to] = mouthX[from];
+        mouthY[to] = mouthY[from];
+        mouthWidth[to] = mouthWidth[from];
+        mouthHeight[to] = mouthHeight[from];
+    }
+
+    private void grow() {
+        int capacity = fish.length * 2;
+        fish = Arrays.copyOf(fish, capacity);
+        plain = Arrays.copyOf(plain, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        facingRight = Arrays.copyOf(facingRight, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        colliderWidth = Arrays.copyOf(colliderWidth, capacity);
+        colliderHeight = Arrays.copyOf(colliderHeight, capacity);
+        colliderOffsetX = Arrays.copyOf(colliderOffsetX, capacity);
+        colliderOffsetY = Arrays.copyOf(colliderOffsetY, capacity);
+        mouthSize = Arrays.copyOf(mouthSize, capacity);
+        mouthOffsetY = Arrays.copyOf(mouthOffsetY, capacity);
+        bodyX = Arrays.copyOf(bodyX, capacity);
+        bodyY = Arrays.copyOf(bodyY, capacity);
+        bodyWidth = Arrays.copyOf(bodyWidth, capacity);
+        bodyHeight = Arrays.copyOf(bodyHeight, capacity);
+        mouthX = Arrays.copyOf(mouthX, capacity);
+        mouthY = Arrays.copyOf(mouthY, capacity);
+        mouthWidth = Arrays.copyOf(mouthWidth, capacity);
+        mouthHeight = Arrays.copyOf(mouthHeight, capacity);
+        eaten = Arrays.copyOf(eaten, capacity);
+    }
+
+    /**
+     * setParallel method switches between the serial and the parallel mode, see the class comment.
+     * @param parallel Whether to update the fish in parallel.
+     */
+    void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    boolean isParallel() {
+        return parallel;
+    }
+
+    int size() {
+        return count;
+    }
+}
@@ -1,15 +1,15 @@
 package entity;
 
-import game.AppPanel;
+import game.GameWorld;
 import game.Camera;
+import game.FrameProfiler;
 import media.MovingText;
+import media.SoundPriority;
 import util.Point2D;
-import util.PropertiesLoaderBorrowedCode;
+import util.ScratchVectors;
+import util.TimerWheel;
 
 import java.awt.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 /**
  * The player itself. The player constantly follows the mouse, dashes/thrusts upon clicking the left mouse button and can
@@ -19,42 +19,54 @@ import java.util.concurrent.TimeUnit;
 public class Player extends Fish {
 
     private Camera camera;
-    private PropertiesLoaderBorrowedCode defaultSettings = new PropertiesLoaderBorrowedCode("src/defaultsettings");
+    private final float maxVelocity = settings.getPlayerMaxVelocity();
+    private final float thrustTimeIncrement = settings.getThrustTimeIncrement();
 
-    private final float maxVelocity = (float) defaultSettings.getValue("player.maxVelocity", float.class);
-    private final float thrustTimeIncrement = (float) defaultSettings.getValue("player.thrust.timeIncrement", float.class);
+    private final double thrustSpeed = settings.getThrustSpeed(); // Thrust speed on mouse click
+    private final double thrustDuration = settings.getThrustDuration(); // Thrust duration on mouse click
+    private final int thrustSubSteps = Math.max(1, settings.getThrustSubSteps()); // Thrust integration steps per tick
+    private final double msPerSubStep = 1000.0 / settings.getTickRate() / thrustSubSteps;
 
-    private final double thrustSpeed = (double) defaultSettings.getValue("player.thrust.speed", double.class); // Thrust speed on mouse click
-    private final double thrustDuration = (double) defaultSettings.getValue("player.thrust.duration", double.class); // Thrust duration on mouse click
+    // THRUST STATE
+    // The thrust speed and time increment are per millisecond, so each sub-step is scaled by msPerSubStep.
     private boolean isThrusting = false;
+    private double thrustAngle;
+    private double activeThrustSpeed;
+    private double activeThrustDuration;
+    private double thrustTimeElapsed;
+    private final Point2D thrustDelta = new Point2D(); // Reused by every sub-step
+    private final Point2D dashDisplacement = new Point2D(); // Thrust movement since the last collision check
+    private final Rectangle sweptBounds = new Rectangle();
 
     private static final double SCALAR = 0.5f; // Used to half the player size
 
     // Moving text that is instantiated as the player dies.
-    private final float ohNoTextVel = (float) defaultSettings.getValue("player.movingText.vel", float.class);
-    private final int ohNoTextSize = (int) defaultSettings.getValue("player.movingText.size", int.class);
+    private final float ohNoTextVel = settings.getPlayerMovingTextVel();
+    private final int ohNoTextSize = settings.getPlayerMovingTextSize();
 
-    private final float mouthSizeFactor = (float) defaultSettings.getValue("player.collider.mouthSizeFactor", float.class);
+    private final float mouthSizeFactor = settings.getPlayerMouthSizeFactor();
 
-    private final int intialXpToNextLevel = (int) defaultSettings.getValue("player.xp.initialXpToNextLvl", int.class);
+    private final int intialXpToNextLevel = settings.getInitialXpToNextLevel();
     private int xpToNextLevel = intialXpToNextLevel;
 
-    private final int maxLevel = (int) defaultSettings.getValue("player.xp.maxLevel", int.class);
+    private final int maxLevel = settings.getMaxLevel();
     private int experience = 0;
     private int score = 0;
     private boolean hasWon = false;
 
-    private Point2D playerCenter = new Point2D(0, 0);
+    private final Point2D playerCenter = new Point2D(0, 0);
     private Point2D intialSize;
 
-    public Player(Point2D position, Point2D size, int level, AppPanel appPanel, FishFactory fishFactory) {
-        super(position, size, level, false, fishFactory, appPanel, appPanel.getImageManager().getSpriteHashMap().get("PLAYER"), true);
+    private final FishFactory fishFactory;
+
+    public Player(Point2D position, Point2D size, int level, GameWorld world, FishFactory fishFactory) {
+        super(position, size, level, false, fishFactory, world, world.getImageManager().getSpriteHashMap().get("PLAYER"), true);
+        this.fishFactory = fishFactory;
         setSize();
 
         intialSize = size;
-        fishFactory.getFishList().add(this);
 
-        camera = appPanel.getMainCam();
+        camera = world.getMainCam();
     }
 
     /**
@@ -66,7 +78,7 @@ public class Player extends Fish {
         super.update();
         moveToMouse();
 
-        playerCenter = Point2D.sum(position, Point2D.product(size, SCALAR)); // Position + size/2
+        Point2D.product(size, SCALAR, playerCenter).add(position); // Position + size/2
 
         if (experience >= xpToNextLevel) {
             levelUp();
@@ -77,10 +89,13 @@ public class Player extends Fish {
      * moveToMouse method moves the player towards the mouse
      */
     private void moveToMouse() {
-        double mouseX = appPanel.getMouse().x;
-        double mouseY = appPanel.getMouse().y;
+        double mouseX = world.getMouse().x + camera.getPosition().getX(); // Mouse position in the world
+        double mouseY = world.getMouse().y + camera.getPosition().getY();
 
-        double dist = Point2D.distance(new Point2D(mouseX, mouseY), playerCenter); // Distance from mouse to player
+        ScratchVectors scratch = world.getScratchVectors();
+        int mark = scratch.mark();
+        double dist = Point2D.distance(scratch.acquire(mouseX, mouseY), playerCenter); // Distance from mouse to player
+        scratch.release(mark);
         final int dashSmoothness = 100;
         double dx = (mouseX - playerCenter.getX()) / (dist + dashSmoothness); // Magic constant: arbitrary value
 	double dy = (mouseY - playerCenter.getY()) / (dist + dashSmoothness);
@@ -90,49 +105,88 @@ public class Player extends Fish {
 
 	position.add(velocity);
 
-	camera.update(appPanel.getUniverse());
+	world.getProfiler().begin(FrameProfiler.Phase.CAMERA);
+	camera.update();
+	world.getProfiler().end(FrameProfiler.Phase.CAMERA);
     }
 
     /**
-     * thrust method gives a burst of speed
+     * thrust method gives a burst of speed. The thrust is applied by updateThrust over the following ticks.
      * @param Point2D new position.
      */
     public void thrust(Point2D targetPosition, double thrustSpeed, double thrustDuration) {
-        appPanel.getAudioLoader().playClip("DASH");
-
-        Point2D deltaPosition = new Point2D(
-                targetPosition.getX() - playerCenter.getX(),
-                targetPosition.getY() - playerCenter.getY()
-        );
-        double thrustAngle = Math.atan2(deltaPosition.getY(), deltaPosition.getX());
+        world.getAudioLoader().playClip("DASH");
 
         if (!isThrusting) {
             isThrusting = true;
+            thrustAngle = Math.atan2(targetPosition.getY() - playerCenter.getY(), targetPosition.getX() - playerCenter.getX());
+            activeThrustSpeed = thrustSpeed;
+            activeThrustDuration = thrustDuration;
+            thrustTimeElapsed = 0;
+        }
+    }
 
-            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-            final Runnable thrust = new Runnable()
-            {
-                private double currentThrustSpeed;
-                private float timeElapsed = 0;
-
-                @Override public void run() {
-                    currentThrustSpeed = thrustSpeed - (thrustSpeed / thrustDuration) * timeElapsed;
-
-                    Point2D deltaVelocity = Point2D.xyComponents(currentThrustSpeed, thrustAngle);
-                    position.add(deltaVelocity);
-                    final int cameraDashVel = 6;
-                    camera.updateMovList(Point2D.product(deltaVelocity, new Point2D(cameraDashVel, cameraDashVel)));
-                    timeElapsed += thrustTimeIncrement;
-
-                    if (currentThrustSpeed < 0.01d) { // Magic constant: arbitrary small value.
-                        currentThrustSpeed = 0;
-                        isThrusting = false;
-                        scheduler.shutdown();
-                    }
-                }
-            };
-            scheduler.scheduleAtFixedRate(thrust, 0, 1, TimeUnit.MILLISECONDS);
+    /**
+     * updateThrust method moves the player along the current thrust, if there is one. The speed falls off linearly
+     * with time and is integrated in a number of sub-steps, each of which also feeds the camera a movement sample.
+     * Must be called once per tick, since update is called more than once per tick.
+     */
+    public void updateThrust() {
+        for (int step = 0; step < thrustSubSteps && isThrusting; step++) {
+            double currentThrustSpeed = activeThrustSpeed - (activeThrustSpeed / activeThrustDuration) * thrustTimeElapsed;
+            if (currentThrustSpeed < 0.01d) { // Magic constant: arbitrary small value.
+                isThrusting = false;
+                break;
+            }
+
+            Point2D.xyComponents(currentThrustSpeed * msPerSubStep, thrustAngle, thrustDelta);
+            position.add(thrustDelta);
+            dashDisplacement.add(thrustDelta);
+
+            final int cameraDashVel = 6;
+            camera.updateMovList(Point2D.xyComponents(currentThrustSpeed * cameraDashVel, thrustAngle, thrustDelta));
+            thrustTimeElapsed += thrustTimeIncrement * msPerSubStep;
+        }
+    }
+
+    /**
+     * updateCollision checks collision like a regular fish, but while dashing the whole path the thrust moved the player
+     * along since the last check is searched, so that small fish cannot be skipped over.
+     */
+    @Override
+    protected void updateCollision() {
+        if (dashDisplacement.getX() == 0 && dashDisplacement.getY() == 0) {
+            super.updateCollision();
+            return;
         }
+
+        getColliderBounds(sweptBounds);
+        int startX = (int) Math.floor(sweptBounds.x - dashDisplacement.getX());
+        int startY = (int) Math.floor(sweptBounds.y - dashDisplacement.getY());
+        int minX = Math.min(sweptBounds.x, startX);
+        int minY = Math.min(sweptBounds.y, startY);
+        int maxX = Math.max(sweptBounds.x, startX) + sweptBounds.width + 1;
+        int maxY = Math.max(sweptBounds.y, startY) + sweptBounds.height + 1;
+        sweptBounds.setBounds(minX, minY, maxX - minX, maxY - minY);
+
+        updateCollision(fishFactory.getCollisionCandidates(sweptBounds));
+        dashDisplacement.set(0, 0); // This path has been checked
+    }
+
+    /**
+     * usesFishStore returns false, since the player follows the mouse and has its own collision handling.
+     */
+    @Override
+    protected boolean usesFishStore() {
+        return false;
+    }
+
+    /**
+     * hasMouthCollision uses a swept test while the player is dashing, see Fish.hasSweptMouthCollision.
+     */
+    @Override
+    protected boolean hasMouthCollision(Fish other) {
+        return hasSweptMouthCollision(other, dashDisplacement.getX(), dashDisplacement.getY());
     }
 
     /**
@@ -188,34 +242,33 @@ public class Player extends Fish {
         } else if (!hasWon) {
             hasWon = true;
             final Point2D textAlignmentDivisor = new Point2D(4.0f, 2.0f);
-            Point2D middleOfScreen = new Point2D(appPanel.getScreenWidth()/textAlignmentDivisor.getX(),
-                                                 appPanel.getScreenHeight()/textAlignmentDivisor.getY());
+            Point2D middleOfScreen = new Point2D(world.getScreenWidth()/textAlignmentDivisor.getX(),
+                                                 world.getScreenHeight()/textAlignmentDivisor.getY());
             final int victoryTextSize = 100;
-            appPanel.getMovingTexts().add(
+            world.getMovingTexts().add(
                     new MovingText(middleOfScreen, 0, "YOU WIN!", victoryTextSize, Color.GREEN)
             );
-            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
             final Runnable exitGame = new Runnable(){
                     @Override
                     public void run() {
-                        System.exit(0); // Terminates the program
+                        world.exit(); // Ends the game
                     }
                 };
-            scheduler.schedule(exitGame, 3, TimeUnit.SECONDS); // Magic constant: Doesn't particularly matter - wait for an arbitrary small amount of time
-            scheduler.shutdown(); // Closes the thread
+            TimerWheel timerWheel = world.getTimerWheel();
+            timerWheel.schedule(exitGame, timerWheel.secondsToTicks(3)); // Magic constant: Doesn't particularly matter - wait for an arbitrary small amount of time
         }
     }
 
     @Override
     public void die() {
-        appPanel.getAudioLoader().playClip("BITE");
+        world.getAudioLoader().playClip("BITE", SoundPriority.HIGH); // Must be heard over the bites of other fish
         final int blinkDur = 5;
         final int blinkFreq = 2;
         blink(blinkDur, blinkFreq);
         grantInvulnerability(blinkDur);
         resetStats();
-        appPanel.getMovingTexts().add(
-                new MovingText(position, ohNoTextVel, "OH NO!", ohNoTextSize, Color.RED)
+        world.getMovingTexts().add(
+                new MovingText(camera.toScreen(position), ohNoTextVel, "OH NO!", ohNoTextSize, Color.RED)
         );
     }
 
@@ -239,7 +292,7 @@ public class Player extends Fish {
      */
     @Override
     protected boolean isFacingRight() {
-        return appPanel.getMouse().x > playerCenter.getX();
+        return world.getMouse().x + camera.getPosition().getX() > playerCenter.getX();
     }
 
     /**
@@ -1,6 +1,6 @@
 package entity;
 
-import game.AppPanel;
+import game.GameWorld;
 import util.Point2D;
 
 import java.util.Random;
@@ -11,16 +11,16 @@ import java.util.Random;
 public class School extends BasicEnemy {
     private int count; // Number of fish in school object
 
-    private static final Random RANDOM = new Random();
-    private int direction = RANDOM.nextBoolean() ? 1 : -1;
+    private final Random random = world.getRandom(); // The world is set by the Entity constructor
+    private int direction = random.nextBoolean() ? 1 : -1;
     private FishFactory fishFactory;
 
     /**
      * Constructor that initializes a School object. Calls the super class, BasicEnemy, where the size, position, velocity
      * and level is set. Calls the method instantiateSchool.
      */
-    public School(Point2D position, Point2D size, Point2D velocity, FishFactory fishFactory, AppPanel appPanel, int count) {
-        super(position, size, velocity, 1, fishFactory, appPanel);
+    public School(Point2D position, Point2D size, Point2D velocity, FishFactory fishFactory, GameWorld world, int count) {
+        super(position, size, velocity, 1, fishFactory, world);
         this.count = count;
         this.fishFactory = fishFactory;
 
@@ -28,8 +28,20 @@ public class School extends BasicEnemy {
     }
 
     /**
-     * instantiateSchool creates a number of BasicEnemy objects, as many as the variable "count", and adds them
-     * to the ArrayList schoolList. All the BasicEnemy objects have the same direction and there are
+     * respawn resets a pooled school and creates a new group of fish for it.
+     * @param count Number of fish in the new school.
+     */
+    protected void respawn(double x, double y, double velX, double velY, int count) {
+        super.respawn(x, y, velX, velY);
+        this.count = count;
+        direction = random.nextBoolean() ? 1 : -1;
+
+        instantiateSchool();
+    }
+
+    /**
+     * instantiateSchool creates (or takes from the fish pool) a number of BasicEnemy objects, as many as the variable
+     * "count". All the BasicEnemy objects have the same direction and there are
      * spacing between that is randomized
      * @param Nothing.
      * @return Nothing.
@@ -39,19 +51,16 @@ public class School extends BasicEnemy {
         final float yVelOffset = 0.5f;
         final float xVelOffset = 0.7f;
         final float displacementFactor = 0.25f;
-        float yVelocity = (float) Math.random() - yVelOffset;
+        float yVelocity = random.nextFloat() - yVelOffset;
 
 	for (int x = 0; x < count; x++) {
-	    float xDisplacement = (float)(Math.random() * spacing * displacementFactor);
-	    float yDisplacement = (float)(Math.random() * spacing * displacementFactor);
-
-	    BasicEnemy fish = new BasicEnemy(
-		    new Point2D(position.getX() + xDisplacement + spacing * x,
-				position.getY() + yDisplacement + (spacing * Math.random() * count)),
-		    new Point2D(),
-		    new Point2D(xVelOffset * direction, yVelocity),
-		    1, fishFactory, appPanel
-	    );
+	    float xDisplacement = (float)(random.nextDouble() * spacing * displacementFactor);
+	    float yDisplacement = (float)(random.nextDouble() * spacing * displacementFactor);
+
+	    fishFactory.obtainBasicEnemy(FishType.SMALL_FISH,
+					 position.getX() + xDisplacement + spacing * x,
+					 position.getY() + yDisplacement + (spacing * random.nextDouble() * count),
+					 xVelOffset * direction, yVelocity, 1);
 	}
     }
 
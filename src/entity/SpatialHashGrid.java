@@ -0,0 +1,239 @@
+package entity;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SpatialHashGrid class is a uniform grid that keeps track of which cells each fish overlaps. It is used as a
+ * broadphase for the collision checks, so that a fish is only tested against the fish that share at least one cell with
+ * it instead of against every fish in the game.
+ * The cells are stored in a hash map keyed by their coordinates, which means that the grid has no fixed bounds and only
+ * occupied cells take up memory. The map is an open addressing table with primitive keys, and the lists of emptied cells
+ * are reused, so that moving fish between cells does not allocate.
+ */
+public class SpatialHashGrid implements Broadphase {
+
+    static final int INITIAL_CAPACITY = 256; // Must be a power of two. Package-private, like hash and key, for the tests
+    private static final float MAX_LOAD = 0.5f;
+
+    private final int cellSize;
+    private long[] cellKeys = new long[INITIAL_CAPACITY];
+    private List<Fish>[] cells = newCellArray(INITIAL_CAPACITY); // null marks an unused slot
+    private int cellCount = 0;
+    private final List<List<Fish>> freeCells = new ArrayList<>();
+    private int queryStamp = 0;
+
+    public SpatialHashGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * update method moves a fish to the cells that are overlapped by the given bounds. The fish is only re-inserted if
+     * the range of cells has changed since the last update.
+     * @param fish The fish to update.
+     * @param bounds The bounds of the fish, in pixels.
+     */
+    @Override
+    public void update(Fish fish, Rectangle bounds) {
+        int minX = Math.floorDiv(bounds.x, cellSize);
+        int minY = Math.floorDiv(bounds.y, cellSize);
+        int maxX = Math.floorDiv(bounds.x + Math.max(bounds.width - 1, 0), cellSize);
+        int maxY = Math.floorDiv(bounds.y + Math.max(bounds.height - 1, 0), cellSize);
+
+        if (fish.inGrid && fish.gridMinX == minX && fish.gridMinY == minY && fish.gridMaxX == maxX && fish.gridMaxY == maxY)
+            return; // Still in the same cells
+
+        remove(fish);
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                getOrCreateCell(key(cx, cy)).add(fish);
+            }
+        }
+        fish.gridMinX = minX;
+        fish.gridMinY = minY;
+        fish.gridMaxX = maxX;
+        fish.gridMaxY = maxY;
+        fish.inGrid = true;
+    }
+
+    /**
+     * remove method removes a fish from every cell it is in. Cells that become empty are dropped.
+     * @param fish The fish to remove.
+     */
+    @Override
+    public void remove(Fish fish) {
+        if (!fish.inGrid) return;
+
+        for (int cx = fish.gridMinX; cx <= fish.gridMaxX; cx++) {
+            for (int cy = fish.gridMinY; cy <= fish.gridMaxY; cy++) {
+                long key = key(cx, cy);
+                int slot = findSlot(key);
+                if (slot >= 0) {
+                    List<Fish> cell = cells[slot];
+                    cell.remove(fish);
+                    if (cell.isEmpty())
+                        removeSlot(slot);
+                }
+            }
+        }
+        fish.inGrid = false;
+    }
+
+    /**
+     * query method collects every fish that shares a cell with the given bounds. Each fish is only added once, and the
+     * result is sorted in spawn order so that collisions are resolved in the same order as a plain loop over the fish list.
+     * @param bounds The area to search, in pixels.
+     * @param result The list to fill. It is cleared before any fish are added.
+     */
+    @Override
+    public void query(Rectangle bounds, List<Fish> result) {
+        result.clear();
+        queryStamp++;
+
+        int minX = Math.floorDiv(bounds.x, cellSize);
+        int minY = Math.floorDiv(bounds.y, cellSize);
+        int maxX = Math.floorDiv(bounds.x + Math.max(bounds.width - 1, 0), cellSize);
+        int maxY = Math.floorDiv(bounds.y + Math.max(bounds.height - 1, 0), cellSize);
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                int slot = findSlot(key(cx, cy));
+                if (slot < 0) continue;
+
+                List<Fish> cell = cells[slot];
+                for (int i = 0; i < cell.size(); i++) {
+                    Fish fish = cell.get(i);
+                    if (fish.gridQueryStamp != queryStamp) {
+                        fish.gridQueryStamp = queryStamp;
+                        result.add(fish);
+                    }
+                }
+            }
+        }
+        result.sort(SPAWN_ORDER);
+    }
+
+    /**
+     * queryUnordered method collects the fish in every cell that overlaps the given area. Unlike query, a fish that is in
+     * several of the cells is added several times, and the result is not sorted. The grid is only read, so several
+     * threads can query it at the same time, as long as no fish is moved meanwhile.
+     * @param x The left edge of the area, in pixels.
+     * @param y The top edge of the area, in pixels.
+     * @param width The width of the area.
+     * @param height The height of the area.
+     * @param result The list to fill. It is cleared before any fish are added.
+     */
+    @Override
+    public void queryUnordered(int x, int y, int width, int height, List<Fish> result) {
+        result.clear();
+
+        int minX = Math.floorDiv(x, cellSize);
+        int minY = Math.floorDiv(y, cellSize);
+        int maxX = Math.floorDiv(x + Math.max(width - 1, 0), cellSize);
+        int maxY = Math.floorDiv(y + Math.max(height - 1, 0), cellSize);
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                int slot = findSlot(key(cx, cy));
+                if (slot < 0) continue;
+
+                List<Fish> cell = cells[slot];
+                for (int i = 0; i < cell.size(); i++) { // Indexed, since addAll would copy the cell into a new array
+                    result.add(cell.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * findSlot method returns the slot of the cell with the given key.
+     * @param key The cell key.
+     * @return int, the slot, or -1 if the cell is not in the map.
+     */
+    private int findSlot(long key) {
+        int mask = cells.length - 1;
+        for (int slot = hash(key) & mask; cells[slot] != null; slot = (slot + 1) & mask) {
+            if (cellKeys[slot] == key) return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * getOrCreateCell method returns the list of fish in the cell with the given key, adding an empty cell if needed.
+     */
+    private List<Fish> getOrCreateCell(long key) {
+        int mask = cells.length - 1;
+        int slot = hash(key) & mask;
+        for (; cells[slot] != null; slot = (slot + 1) & mask) {
+            if (cellKeys[slot] == key) return cells[slot];
+        }
+
+        List<Fish> cell = freeCells.isEmpty() ? new ArrayList<>() : freeCells.remove(freeCells.size() - 1);
+        cellKeys[slot] = key;
+        cells[slot] = cell;
+        cellCount++;
+        if (cellCount > cells.length * MAX_LOAD) {
+            resize(cells.length * 2);
+        }
+        return cell;
+    }
+
+    /**
+     * removeSlot method removes an empty cell from the map. The cells after it in the same probe sequence are shifted
+     * back, so that lookups never stop at the gap.
+     */
+    private void removeSlot(int slot) {
+        freeCells.add(cells[slot]);
+        int mask = cells.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; cells[next] != null; next = (next + 1) & mask) {
+            int home = hash(cellKeys[next]) & mask;
+            // Move the entry into the gap unless its home slot lies cyclically between the gap and its current slot
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                cellKeys[gap] = cellKeys[next];
+                cells[gap] = cells[next];
+                gap = next;
+            }
+        }
+        cells[gap] = null;
+        cellCount--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = cellKeys;
+        List<Fish>[] oldCells = cells;
+        cellKeys = new long[capacity];
+        cells = newCellArray(capacity);
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldCells.length; i++) {
+            if (oldCells[i] == null) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (cells[slot] != null) slot = (slot + 1) & mask;
+            cellKeys[slot] = oldKeys[i];
+            cells[slot] = oldCells[i];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Fish>[] newCellArray(int capacity) {
+        return (List<Fish>[]) new List<?>[capacity];
+    }
+
+    /**
+     * hash method spreads the bits of a cell key. Neighbouring cells differ only in their low bits, which would otherwise
+     * end up in the same part of the table.
+     */
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * key method packs a pair of cell coordinates into a single hash key.
+     */
+    static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,117 @@
+package entity;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The SweepAndPrune class is a broadphase that keeps the fish sorted by the left edge of their bounds. A query only has
+ * to look at the fish whose left edge lies in a small range of x, which is found with a binary search.
+ * Most fish swim along the x-axis at the same speed, so between two ticks a fish rarely passes more than a few others.
+ * The array is therefore kept sorted with insertion sort: when a fish is updated it is swapped with its neighbours until
+ * it is in place again, which is close to constant time.
+ * Unlike the SpatialHashGrid, there is no cell size to tune, and large fish such as barracudas cost no more than small
+ * ones. Many fish with the same x but far apart on the y-axis make queries slower, though.
+ */
+public class SweepAndPrune implements Broadphase {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private Fish[] sorted = new Fish[INITIAL_CAPACITY]; // By boundsMinX
+    private int count = 0;
+    // The widest bounds seen so far. A query looks this far to the left of its own area, so that it finds wide fish that
+    // start before the area. It never shrinks, which only makes queries look a little further than needed.
+    private int maxWidth = 0;
+
+    @Override
+    public void update(Fish fish, Rectangle bounds) {
+        fish.boundsMinX = bounds.x;
+        fish.boundsMinY = bounds.y;
+        fish.boundsMaxX = bounds.x + Math.max(bounds.width - 1, 0);
+        fish.boundsMaxY = bounds.y + Math.max(bounds.height - 1, 0);
+        maxWidth = Math.max(maxWidth, fish.boundsMaxX - fish.boundsMinX);
+
+        int index = fish.broadphaseIndex;
+        if (index < 0) {
+            if (count == sorted.length) sorted = Arrays.copyOf(sorted, count * 2);
+            index = count++;
+            sorted[index] = fish;
+        }
+
+        // Insertion sort step: move the fish left or right until its neighbours are in order again
+        int minX = fish.boundsMinX;
+        while (index > 0 && sorted[index - 1].boundsMinX > minX) {
+            Fish other = sorted[index - 1];
+            sorted[index] = other;
+            other.broadphaseIndex = index;
+            index--;
+        }
+        while (index < count - 1 && sorted[index + 1].boundsMinX < minX) {
+            Fish other = sorted[index + 1];
+            sorted[index] = other;
+            other.broadphaseIndex = index;
+            index++;
+        }
+        sorted[index] = fish;
+        fish.broadphaseIndex = index;
+    }
+
+    /**
+     * remove method closes the gap left by the fish, which keeps the other fish in order.
+     */
+    @Override
+    public void remove(Fish fish) {
+        int index = fish.broadphaseIndex;
+        if (index < 0) return;
+
+        System.arraycopy(sorted, index + 1, sorted, index, count - index - 1);
+        sorted[--count] = null;
+        for (int i = index; i < count; i++) {
+            sorted[i].broadphaseIndex = i;
+        }
+        fish.broadphaseIndex = -1;
+    }
+
+    @Override
+    public void query(Rectangle bounds, List<Fish> result) {
+        queryUnordered(bounds.x, bounds.y, bounds.width, bounds.height, result);
+        result.sort(SPAWN_ORDER);
+    }
+
+    /**
+     * queryUnordered method scans the fish whose left edge lies between the left edge of the area minus the widest fish,
+     * and the right edge of the area. Each fish is added at most once.
+     */
+    @Override
+    public void queryUnordered(int x, int y, int width, int height, List<Fish> result) {
+        result.clear();
+        int maxX = x + Math.max(width - 1, 0);
+        int maxY = y + Math.max(height - 1, 0);
+        for (int i = firstAtOrAfter(x - maxWidth); i < count; i++) {
+            Fish other = sorted[i];
+            if (other.boundsMinX > maxX) break;
+            if (other.boundsMaxX >= x && other.boundsMinY <= maxY && other.boundsMaxY >= y) {
+                result.add(other);
+            }
+        }
+    }
+
+    /**
+     * firstAtOrAfter method finds, with a binary search, the first fish whose left edge is at or after the given x.
+     * @param x The x coordinate.
+     * @return int, the index of the fish, or the number of fish if there is none.
+     */
+    private int firstAtOrAfter(int x) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle].boundsMinX < x) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
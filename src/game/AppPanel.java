@@ -1,92 +1,106 @@
 package game;
 
-import entity.Fish;
-import entity.FishFactory;
-import entity.Player;
-
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.awt.event.MouseEvent;
-import java.awt.event.MouseListener;
-import java.awt.event.MouseMotionListener;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.util.concurrent.CompletableFuture;
 
 import media.ImageManager;
-import media.HUD;
 import media.AudioManagerBorrowedCode;
+import media.AssetLoader;
 import media.AudioLoader;
-import media.MovingText;
 
-import util.Point2D;
-import util.PropertiesLoaderBorrowedCode;
+import util.Settings;
 
 /**
- * The game.AppPanel class serves as the GUI Window for the application and contains high-level game logic through method calls
+ * The game.AppPanel class serves as the GUI Window for the application. It renders a GameWorld, which is advanced on a
+ * separate thread by a GameLoop, and feeds it the mouse input. Frames are drawn by Swing on the EDT; see GameCanvas for
+ * the active renderer, which this class is the fallback for.
  * @author eribi813, andfr210
  * @version 1.0
  * @since 2020-03-22
  */
-public class AppPanel extends JComponent implements ActionListener, MouseMotionListener, MouseListener
+public class AppPanel extends JComponent
 {
-    private PropertiesLoaderBorrowedCode defaultSettings = new PropertiesLoaderBorrowedCode("src/defaultsettings");
-
-    private final int screenWidth = (int) defaultSettings.getValue("screen.width", int.class); // Window width
-    private final int screenHeight = (int) defaultSettings.getValue("screen.height", int.class); // Window height
-
-    private final int mapWidth = (int) defaultSettings.getValue("map.width", int.class);
-    private final int mapHeight = (int) defaultSettings.getValue("map.height", int.class);
-    private final float spawnRate = (float) defaultSettings.getValue("enemy.spawnRate", float.class);
-    private final int startSize = (int) defaultSettings.getValue("player.startSize", int.class); // Start size for the player fish
+    private final Settings settings;
 
-    private final static int MAX_FPS = 60;
+    private final int screenWidth; // Window width
+    private final int screenHeight; // Window height
 
-    private Player player = null;
-    private Point mouse = new Point(); // Mouse position
+    private final MouseInput mouseInput = new MouseInput();
 
-    private final ImageManager imageManager = new ImageManager();
+    private final ImageManager imageManager;
     private final AudioManagerBorrowedCode audioManagerBorrowedCode = new AudioManagerBorrowedCode();
 
     private AudioLoader audioLoader = new AudioLoader(audioManagerBorrowedCode);
 
-    private final Universe universe = new Universe();
-    private Background background;
-    private HUD hud;
-    private Camera mainCam;
-    private List<MovingText> movingTexts = new ArrayList<>();
+    private final GameWorld world;
+    private final WorldRenderer worldRenderer;
 
-    private Timer timer = new Timer(1000 / MAX_FPS, this); // 60 fps
-    private static final boolean DEBUG_MODE = false;
+    private final Object stateLock = new Object(); // Guards the game state between the simulation thread and the EDT
+    private final GameLoop gameLoop;
 
-    private FishFactory fishFactory;
+    private final AssetLoader assetLoader;
+    private final CompletableFuture<Void> loading; // Completed when the sprites and sounds have been loaded
+    private CompletableFuture<Void> starting = null;
 
     /**
-     * Constructor that initializes window, mouse listeners, audio clips, images
-     * and creates a player object
+     * Constructor that loads the default settings.
      */
     public AppPanel() {
+        this(Settings.loadDefault());
+    }
+
+    /**
+     * Constructor that initializes window, mouse listeners, and creates the game world. The audio clips and images are
+     * loaded in the background, while a loading screen is shown.
+     * @param settings The settings, loaded once and shared by the whole game.
+     */
+    public AppPanel(Settings settings) {
+        this.settings = settings;
+        screenWidth = settings.getScreenWidth();
+        screenHeight = settings.getScreenHeight();
+
         setDoubleBuffered(true);
         setPreferredSize(new Dimension(screenWidth, screenHeight));
-        addMouseMotionListener(this);
-        addMouseListener(this);
-
-        audioLoader.createAudioClips();
-        imageManager.initImages();
-        imageManager.loadImages();
+        mouseInput.listenTo(this);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_F3) world.getProfiler().toggleOverlay();
+            }
+        });
+        setFocusable(true);
 
-        playMusic();
+        imageManager = new ImageManager(settings);
+        imageManager.initImages(); // The sprites are handed to the world now, and their images are loaded later
+        world = new GameWorld(settings, imageManager, audioLoader, mouseInput);
+        worldRenderer = new WorldRenderer(settings);
+        gameLoop = new GameLoop(this::tick, this::repaint, settings.getTickRate(), settings.getMaxFps());
 
-        background = new Background(this);
-        fishFactory = new FishFactory(this);
+        assetLoader = new AssetLoader(settings.getAssetLoadThreads());
+        loading = assetLoader.load(imageManager, audioLoader, (asset, nanos, loaded, total) -> repaint());
+    }
 
-        if (player == null)
-            player = new Player(new Point2D(screenWidth / 2, screenHeight / 2), new Point2D(startSize, startSize), 1, this, fishFactory);
+    /**
+     * start method starts the simulation thread and the music, as soon as the assets have been loaded.
+     */
+    public void start() {
+        requestFocusInWindow();
+        starting = loading.thenRun(() -> {
+            playMusic();
+            gameLoop.start();
+        });
+    }
 
-        mainCam = new Camera(this);
-        player.setCamera(mainCam);
-        hud = new HUD(this, player);
+    /**
+     * tick method advances the game world by one fixed step. Called from the simulation thread.
+     */
+    private void tick() {
+        synchronized (stateLock) {
+            world.tick();
+        }
     }
 
     @Override
@@ -94,43 +108,23 @@ public class AppPanel extends JComponent implements ActionListener, MouseMotionL
 	paintComponent(g);
     }
 
+    /**
+     * paintComponent draws the latest state of the game, interpolated between the last two ticks. No game logic is run
+     * here.
+     */
     @Override
     protected void paintComponent(Graphics g) {
 	super.paintComponent(g);
 
-        fishFactory.spawnFishAroundPlayer(spawnRate);
-
-        // Background
-        background.render(g);
-
-        // Render and update fish
-        for(Fish fish : fishFactory.getFishList()) {
-            fish.render(g);
-            fish.update();
+        if (!loading.isDone()) {
+            worldRenderer.renderLoading(g, world, assetLoader.getProgress());
+            return;
+        }
+        synchronized (stateLock) {
+            worldRenderer.render(g, world, gameLoop.getInterpolation());
         }
-        fishFactory.removeDead(); // Removes dead fish
-
-        player.update();
-        player.render(g);
-
-        drawHUD(g);
-
-	timer.start();
-    }
-
-    /**
-     * drawHud renders a media.HUD with a progress bar and a score counter and updates moving text objects.
-     * @param Graphics object.
-     */
-    private void drawHUD(Graphics g) {
-        float alpha = player.getExperience() / (float)player.getXpToNextLevel(); // Progress value
-        hud.drawProgressBar(alpha, g);
-
-        hud.drawScore("SCORE: " + hud.getAnimatedScore(), g, Color.WHITE);
-        updateMovingTexts(hud, g);
     }
 
-
     /**
      * playMusic plays a random music track.
      */
@@ -139,104 +133,20 @@ public class AppPanel extends JComponent implements ActionListener, MouseMotionL
     }
 
     /**
-     * updateMovingTexts handles score texts and moves them to the Score HUD position.
-     * @param hud The HUD.
-     * @param g The graphics object.
+     * stop method stops the simulation thread and waits for the current tick to finish, and stops the audio.
      */
-    private void updateMovingTexts(HUD hud, Graphics g) {
-        List<MovingText> toRemove = new ArrayList<>();
-        for (MovingText mt : movingTexts) {
-            mt.render(g);
-            mt.moveToPosition(hud.getScorePosition());
-            if (mt.getHasReached()) {
-                toRemove.add(mt);
-            }
-        }
-        for (MovingText mt : toRemove) {
-            movingTexts.remove(mt);
-        }
-        toRemove.clear();
-    }
-    public List<MovingText> getMovingTexts() {
-        return movingTexts;
+    public void stop() {
+        if (starting != null) starting.cancel(false); // Still loading; do not start afterwards
+        gameLoop.stop();
+        audioLoader.stopMusic();
+        audioManagerBorrowedCode.close();
     }
 
-    public int getScreenWidth() {
-        return screenWidth;
+    public GameWorld getWorld() {
+        return world;
     }
 
-    public int getScreenHeight() {
-        return screenHeight;
-    }
-
-    public int getMapWidth() {
-        return mapWidth;
-    }
-
-    public int getMapHeight() {
-        return mapHeight;
-    }
-
-    public Point getMouse() {
-        return mouse;
-    }
-
-    public Player getPlayer() {return player; }
-
-    public Universe getUniverse() { return universe; }
-
-    public ImageManager getImageManager() {
-        return imageManager;
-    }
-
-    public Camera getMainCam() {
-        return mainCam;
-    }
-
-    public static boolean inDebugMode() { return DEBUG_MODE; }
-
-    public AudioLoader getAudioLoader() {
-        return audioLoader;
-    }
-
-    @Override
-    public void actionPerformed(ActionEvent e) {
-	repaint();
-    }
-
-    @Override
-    public void mouseClicked(MouseEvent e) {
-
-    }
-
-    @Override
-    public void mousePressed(MouseEvent e) {
-        if(e.getButton() == 1)
-            player.thrust(new Point2D(mouse.x, mouse.y));
-    }
-
-    @Override
-    public void mouseReleased(MouseEvent e) {
-
-    }
-
-    @Override
-    public void mouseEntered(MouseEvent e) {
-
-    }
-
-    @Override
-    public void mouseExited(MouseEvent e) {
-
-    }
-
-    @Override
-    public void mouseDragged(MouseEvent e) {
-
-    }
-
-    @Override
-    public void mouseMoved(MouseEvent e) {
-	mouse = e.getPoint(); // Updates mouse position
+    public WorldRenderer getWorldRenderer() {
+        return worldRenderer;
     }
 }
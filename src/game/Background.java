@@ -3,21 +3,212 @@ package game;
 import entity.Entity;
 import util.Point2D;
 
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
 /**
  * A background object automatically scales an image to fit the entire map.
  * This can later be expanded to support parallax scrolling.
+ * The scaled image is cut into tiles that are created the first time they are on screen, and only the tiles that overlap
+ * the screen are drawn. The cost of drawing the background therefore depends on the size of the screen, not the map.
+ * At most a fixed number of tiles are kept; the ones that have not been on screen for the longest time are dropped first.
+ * The cached tiles are kept in a list from the least to the most recently drawn, so finding the tile to drop does not
+ * depend on the size of the map either.
  */
 
 public class Background extends Entity
 {
+    private final int tileSize;
+    private final int maxCachedTiles;
+    private final int columns;
+    private final int rows;
+
+    private final Image[] tiles;
+    private final long[] tileLastDrawn; // The frame each tile was last drawn in
+    private BufferedImage tileSource = null; // The sprite image the tiles were made from
+    private int cachedTileCount = 0;
+    private long frame = 0;
+
+    // Doubly linked list of the cached tiles, from the least to the most recently drawn. NONE ends the list.
+    private static final int NONE = -1;
+    private final int[] previousTile;
+    private final int[] nextTile;
+    private int leastRecentTile = NONE;
+    private int mostRecentTile = NONE;
+
+    // Reused every frame
+    private final Rectangle view = new Rectangle();
+    private final Rectangle clip = new Rectangle();
+
     /**
      * Constructor for a Background object, the super class for Background is the Entity class.
      * Adds the Background object to the universe and sets the sprite for the Background object
      */
-    public Background(AppPanel appPanel) {
-	super(new Point2D(-appPanel.getMapWidth() / 2, -appPanel.getMapHeight() / 2),
-	      new Point2D(appPanel.getMapWidth() + appPanel.getScreenWidth(), appPanel.getMapHeight() + appPanel.getScreenHeight()),
-	      appPanel.getImageManager().getSpriteHashMap().get("BACKGROUND"), appPanel);
-	appPanel.getUniverse().addEntity(this);
+    public Background(GameWorld world) {
+	super(new Point2D(-world.getMapWidth() / 2, -world.getMapHeight() / 2),
+	      new Point2D(world.getMapWidth() + world.getScreenWidth(), world.getMapHeight() + world.getScreenHeight()),
+	      world.getImageManager().getSpriteHashMap().get("BACKGROUND"), world);
+	world.getUniverse().addEntity(this);
+
+	tileSize = Math.max(1, world.getSettings().getBackgroundTileSize());
+	maxCachedTiles = Math.max(1, world.getSettings().getBackgroundMaxCachedTiles());
+	columns = (int) Math.ceil(size.getX() / tileSize);
+	rows = (int) Math.ceil(size.getY() / tileSize);
+	tiles = new Image[columns * rows];
+	tileLastDrawn = new long[columns * rows];
+	previousTile = new int[columns * rows];
+	nextTile = new int[columns * rows];
+    }
+
+    /**
+     * render method draws the tiles of the background that are visible through the main camera.
+     * @param g The graphics object, translated to world coordinates.
+     * @param alpha The interpolation factor between the previous and the current tick (0-1).
+     */
+    @Override
+    public void render(Graphics g, double alpha) {
+	if (!render) return;
+	if (!hasSprite()) {
+	    super.render(g, alpha);
+	    return;
+	}
+
+	BufferedImage source = sprite.getBufferedImage();
+	if (source != tileSource) {
+	    clearTiles(); // The sprite has been given a new image
+	    tileSource = source;
+	}
+	frame++;
+
+	// The visible part of the world, the same way it is translated in AppPanel
+	Camera camera = world.getMainCam();
+	int viewX = (int) Math.round(camera.getInterpolatedX(alpha));
+	int viewY = (int) Math.round(camera.getInterpolatedY(alpha));
+	view.setBounds(viewX, viewY, world.getScreenWidth(), world.getScreenHeight());
+	clip.setBounds(view);
+	g.getClipBounds(clip); // Left as it is if there is no clip
+	int right = Math.min(view.x + view.width, clip.x + clip.width);
+	int bottom = Math.min(view.y + view.height, clip.y + clip.height);
+	view.x = Math.max(view.x, clip.x);
+	view.y = Math.max(view.y, clip.y);
+	view.width = right - view.x;
+	view.height = bottom - view.y;
+	if (view.isEmpty()) return;
+
+	int originX = (int) position.getX();
+	int originY = (int) position.getY();
+	int firstColumn = Math.max(0, Math.floorDiv(view.x - originX, tileSize));
+	int lastColumn = Math.min(columns - 1, Math.floorDiv(view.x + view.width - 1 - originX, tileSize));
+	int firstRow = Math.max(0, Math.floorDiv(view.y - originY, tileSize));
+	int lastRow = Math.min(rows - 1, Math.floorDiv(view.y + view.height - 1 - originY, tileSize));
+
+	for (int row = firstRow; row <= lastRow; row++) {
+	    for (int column = firstColumn; column <= lastColumn; column++) {
+		int index = row * columns + column;
+		if (tiles[index] == null) {
+		    evictTiles();
+		    tiles[index] = createTile(source, column, row);
+		    cachedTileCount++;
+		} else {
+		    unlinkTile(index);
+		}
+		linkTile(index); // Now the most recently drawn
+		tileLastDrawn[index] = frame;
+		g.drawImage(tiles[index], originX + column * tileSize, originY + row * tileSize, null);
+	    }
+	}
+    }
+
+    /**
+     * createTile method scales the part of the background image that is covered by one tile. The whole image is drawn
+     * through a transform clipped to the tile, so that the filtering at the edges matches the neighbouring tiles.
+     */
+    private Image createTile(BufferedImage source, int column, int row) {
+	int width = Math.min(tileSize, (int) size.getX() - column * tileSize);
+	int height = Math.min(tileSize, (int) size.getY() - row * tileSize);
+	BufferedImage tile = createCompatibleImage(width, height);
+
+	Graphics2D g = tile.createGraphics();
+	g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+	g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+	g.translate(-column * tileSize, -row * tileSize);
+	g.transform(AffineTransform.getScaleInstance(size.getX() / source.getWidth(), size.getY() / source.getHeight()));
+	g.drawImage(source, 0, 0, null);
+	g.dispose();
+	return tile;
+    }
+
+    private static BufferedImage createCompatibleImage(int width, int height) {
+	if (!GraphicsEnvironment.isHeadless()) {
+	    GraphicsConfiguration configuration =
+		    GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+	    return configuration.createCompatibleImage(width, height, Transparency.OPAQUE);
+	}
+	return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * evictTiles method drops the tile that was drawn the longest time ago, if the cache is full. Tiles drawn in the
+     * current frame are never dropped.
+     */
+    private void evictTiles() {
+	if (cachedTileCount < maxCachedTiles) return;
+
+	int oldest = leastRecentTile;
+	if (oldest == NONE || tileLastDrawn[oldest] == frame) return; // Every cached tile is on screen
+	unlinkTile(oldest);
+	tiles[oldest].flush();
+	tiles[oldest] = null;
+	cachedTileCount--;
+    }
+
+    private void clearTiles() {
+	for (int index = leastRecentTile; index != NONE; index = nextTile[index]) {
+	    tiles[index].flush();
+	    tiles[index] = null;
+	}
+	leastRecentTile = NONE;
+	mostRecentTile = NONE;
+	cachedTileCount = 0;
+    }
+
+    /**
+     * linkTile method adds a tile to the end of the list of cached tiles, as the most recently drawn.
+     */
+    private void linkTile(int index) {
+	previousTile[index] = mostRecentTile;
+	nextTile[index] = NONE;
+	if (mostRecentTile == NONE) {
+	    leastRecentTile = index;
+	} else {
+	    nextTile[mostRecentTile] = index;
+	}
+	mostRecentTile = index;
+    }
+
+    /**
+     * unlinkTile method removes a tile from the list of cached tiles.
+     */
+    private void unlinkTile(int index) {
+	int previous = previousTile[index];
+	int next = nextTile[index];
+	if (previous == NONE) {
+	    leastRecentTile = next;
+	} else {
+	    nextTile[previous] = next;
+	}
+	if (next == NONE) {
+	    mostRecentTile = previous;
+	} else {
+	    previousTile[next] = previous;
+	}
+    }
+
+    /**
+     * getCachedTileCount returns the number of tiles that are currently kept in memory.
+     */
+    public int getCachedTileCount() {
+	return cachedTileCount;
     }
 }
@@ -2,84 +2,154 @@ package game;
 
 import entity.Player;
 import util.Point2D;
-import util.PropertiesLoaderBorrowedCode;
-
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * The Camera class handles the camera movement and follows the player on the screen. This is done by moving every object
- * on the screen.
+ * The Camera class handles the camera movement and follows the player on the screen. Entities keep their world
+ * coordinates; the camera only keeps track of its own position, which is subtracted from everything in the world when it
+ * is rendered.
  */
 public class Camera {
 
     private Point2D currentPosition = new Point2D(0, 0);
-    private Point2D desiredPosition;
-    private List<Point2D> movementList = new CopyOnWriteArrayList<>();
+    private final Point2D previousPosition = new Point2D(0, 0); // Position at the start of the current tick
+
+    // Ring buffer of the latest movement samples. The points are reused, so that adding a sample does not allocate.
+    private final Point2D[] movementSamples;
+    private int sampleCount = 0;
+    private int nextSample = 0;
+    private final Point2D movementAverage = new Point2D();
 
-    private PropertiesLoaderBorrowedCode defaultSettings = new PropertiesLoaderBorrowedCode("src/defaultsettings");
+    private final Point2D minBoundary;
+    private final Point2D maxBoundary;
 
-    private final float cameraReturnVelocity = (float) defaultSettings.getValue("camera.returnVelocity", float.class);
-    private final int maxMovListSamples = (int) defaultSettings.getValue("camera.maxMovListSamples", int.class);
-    private final int cameraReturnDistance = (int) defaultSettings.getValue("camera.returnDistance", int.class);
+    private final int maxMovListSamples;
 
     private Player player;
 
-    private AppPanel appPanel;
+    private GameWorld world;
+
+    public Camera(GameWorld world) {
+	this.world = world;
+	player = world.getPlayer();
+	maxMovListSamples = world.getSettings().getCameraMaxMovListSamples();
+
+	movementSamples = new Point2D[Math.max(1, maxMovListSamples)];
+	for (int i = 0; i < movementSamples.length; i++) {
+	    movementSamples[i] = new Point2D();
+	}
 
-    public Camera(AppPanel appPanel) {
-	this.appPanel = appPanel;
-	player = appPanel.getPlayer();
-	desiredPosition = new Point2D(appPanel.getScreenWidth() / 2, appPanel.getScreenHeight() / 2);
+	Point2D[] boundary = mapBoundary();
+	minBoundary = boundary[0];
+	maxBoundary = boundary[1];
     }
 
     /**
      * update method updates the camera position from the player's current position
-     * @param Universe the universe to move.
      */
-    public void update(Universe universe) {
-	Point2D newPoint = new Point2D(player.getVelocity());
-
-	updateMovList(newPoint);
+    public void update() {
+	updateMovList(player.getVelocity());
+	move(averageMovement());
+    }
 
-	if(desiredPosition.distanceTo(player.getPosition()) > cameraReturnDistance) {
-	    Point2D centerDelta = Point2D.difference(desiredPosition, player.getPlayerCenter());
-	    double angleToCenter = Math.atan2(centerDelta.getY(), centerDelta.getX());
-	    Point2D toCenterDelta = Point2D.xyComponents(-cameraReturnVelocity, angleToCenter);
-	    toCenterDelta = Point2D.clamp(toCenterDelta, mapBoundary()[0], mapBoundary()[1]);
-	    //move(toCenterDelta, universe);
+    /**
+     * averageMovement method calculates the average of the samples in the movement list.
+     * @return Point2D, the average, stored in a point owned by the camera.
+     */
+    private Point2D averageMovement() {
+	double sumX = 0;
+	double sumY = 0;
+	for (int i = 0; i < sampleCount; i++) {
+	    sumX += movementSamples[i].getX();
+	    sumY += movementSamples[i].getY();
 	}
-	Point2D listAvg = Point2D.listAverage(movementList);
-	move(listAvg, universe);
+	if (sampleCount == 0) return movementAverage.set(0, 0);
+	return movementAverage.set(sumX / sampleCount, sumY / sampleCount);
     }
 
     /**
-     * move method moves the universe and the player and updates the camera
+     * move method moves the camera. This is O(1): nothing in the world is moved.
      * @param Point2D, how much to move in pixels
-     * @param Universe, the universe to move
      */
-    private void move(Point2D delta, Universe universe) {
-	universe.move(delta.inverted());
-	player.move(delta.inverted());
+    private void move(Point2D delta) {
 	currentPosition.add(delta);
     }
 
+    /**
+     * savePreviousPosition stores the current camera position so that rendering can interpolate from it.
+     * Should be called at the start of every tick.
+     */
+    public void savePreviousPosition() {
+	previousPosition.setX(currentPosition.getX());
+	previousPosition.setY(currentPosition.getY());
+    }
+
+    /**
+     * getInterpolatedX returns the x position of the camera between the previous and the current tick.
+     * @param alpha The interpolation factor (0-1).
+     * @return double, the x position.
+     */
+    public double getInterpolatedX(double alpha) {
+	return previousPosition.getX() + (currentPosition.getX() - previousPosition.getX()) * alpha;
+    }
+
+    /**
+     * getInterpolatedY returns the y position of the camera between the previous and the current tick.
+     * @param alpha The interpolation factor (0-1).
+     * @return double, the y position.
+     */
+    public double getInterpolatedY(double alpha) {
+	return previousPosition.getY() + (currentPosition.getY() - previousPosition.getY()) * alpha;
+    }
+
+    /**
+     * toScreen converts a position in the world to a position on the screen.
+     * @param worldPosition The position in world coordinates.
+     * @return Point2D, a new point in screen coordinates.
+     */
+    public Point2D toScreen(Point2D worldPosition) {
+	return Point2D.difference(worldPosition, currentPosition);
+    }
+
+    /**
+     * toScreen converts a position in the world to a position on the screen, without allocating.
+     * @param worldPosition The position in world coordinates.
+     * @param out The point to store the screen coordinates in.
+     * @return Point2D, the out point.
+     */
+    public Point2D toScreen(Point2D worldPosition, Point2D out) {
+	return Point2D.difference(worldPosition, currentPosition, out);
+    }
+
+    /**
+     * toWorld converts a position on the screen to a position in the world.
+     * @param screenX The x position on the screen.
+     * @param screenY The y position on the screen.
+     * @return Point2D, a new point in world coordinates.
+     */
+    public Point2D toWorld(double screenX, double screenY) {
+	return new Point2D(screenX + currentPosition.getX(), screenY + currentPosition.getY());
+    }
+
+    public Point2D getPosition() {
+	return currentPosition;
+    }
+
     /**
      * updateMovList updates the movementList that the camera follows and clamps the allowed points within the map boundries
+     * The sample is copied, so the caller can reuse it.
      * @param Point2D, the next point that should be added to the movementlist.
      */
     public void updateMovList(Point2D sample) {
+        // Overwrite the oldest sample once the list is full
+	Point2D stored = movementSamples[nextSample].set(sample);
+	nextSample = (nextSample + 1) % movementSamples.length;
+	sampleCount = Math.min(sampleCount + 1, movementSamples.length);
+
 	// Set velocity sample to 0 if the player is close to a map border
-	if (currentPosition.getX() < mapBoundary()[0].getX()) sample.setX(Math.max(0, sample.getX()));
-	if (currentPosition.getX() > mapBoundary()[1].getX()) sample.setX(Math.min(0, sample.getX()));
-	if (currentPosition.getY() < mapBoundary()[0].getY()) sample.setY(Math.max(0, sample.getY()));
-	if (currentPosition.getY() > mapBoundary()[1].getY()) sample.setY(Math.min(0, sample.getY()));
-
-        // Add samples and remove the first sample if the list gets too big
-	movementList.add(sample);
-        if (movementList.size() > maxMovListSamples){
-            movementList.remove(0);
-	}
+	if (currentPosition.getX() < minBoundary.getX()) stored.setX(Math.max(0, stored.getX()));
+	if (currentPosition.getX() > maxBoundary.getX()) stored.setX(Math.min(0, stored.getX()));
+	if (currentPosition.getY() < minBoundary.getY()) stored.setY(Math.max(0, stored.getY()));
+	if (currentPosition.getY() > maxBoundary.getY()) stored.setY(Math.min(0, stored.getY()));
     }
 
     /**
@@ -89,9 +159,9 @@ public class Camera {
      */
 
     private Point2D[] mapBoundary() {
-	float right = appPanel.getMapWidth()/2 - appPanel.getScreenWidth()/2;
+	float right = world.getMapWidth()/2 - world.getScreenWidth()/2;
 	float left = -right;
-	float down = appPanel.getMapHeight()/2 - appPanel.getScreenHeight()/2;
+	float down = world.getMapHeight()/2 - world.getScreenHeight()/2;
 	float up = -down;
 
 	return new Point2D[]{new Point2D(left, up), new Point2D(right, down)};
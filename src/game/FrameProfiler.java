@@ -0,0 +1,289 @@
+package game;
+
+import util.AllocationCounter;
+import util.RollingPercentiles;
+import util.Settings;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The FrameProfiler class measures how long each phase of a tick and of a frame takes, with System.nanoTime, and how many
+ * bytes the game allocates per tick and per frame. The latest samples of every phase are kept in a rolling window, from
+ * which percentiles are calculated.
+ * Phases can be nested, e.g. the fish pass runs inside the update. The time of a nested phase is only counted for that
+ * phase, and not for the phase it is nested in, so no time is counted twice. Phases are meant to be coarse: beginning and
+ * ending one costs two calls to System.nanoTime, which would skew a phase measured once per entity.
+ * Every method that measures or reads the measurements synchronizes on the profiler, so the percentiles can be drawn
+ * or written to the CSV file from another thread, such as the shutdown hook, while the game runs. The nesting of the
+ * phases is not kept per thread, though, so ticks and frames must still be measured one at a time, e.g. under the lock
+ * that guards the game state. When the profiler is disabled, every method returns immediately.
+ */
+public class FrameProfiler {
+
+    /**
+     * The phases that are measured. The simulation phases are committed once per tick, the others once per frame.
+     */
+    public enum Phase {
+        SPAWN("spawn", true),
+        UPDATE("update", true), // The player, the HUD and the moving texts
+        COLLISION("collision", true), // The fish pass, in which every fish moves and collides in turn
+        REMOVE_DEAD("removeDead", true),
+        CAMERA("camera", true),
+        RENDER("render", false),
+        HUD("hud", false);
+
+        private final String label;
+        private final boolean simulation;
+
+        Phase(String label, boolean simulation) {
+            this.label = label;
+            this.simulation = simulation;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final int WINDOW = 1024; // Number of ticks or frames the percentiles are calculated over
+    private static final int MAX_DEPTH = 8; // Maximum number of nested phases
+    private static final int GRAPH_SAMPLES = 120; // Number of samples shown in each graph of the overlay
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double BYTES_PER_KILOBYTE = 1024.0;
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+    private final boolean enabled;
+    private volatile boolean overlayVisible;
+    private final String csvFile;
+
+    private final RollingPercentiles[] phaseTimes = new RollingPercentiles[PHASES.length];
+    private final RollingPercentiles tickAllocations = new RollingPercentiles(WINDOW);
+    private final RollingPercentiles frameAllocations = new RollingPercentiles(WINDOW);
+    private final long[] currentTimes = new long[PHASES.length]; // Time spent in each phase in the current tick/frame
+
+    private final Phase[] activePhases = new Phase[MAX_DEPTH];
+    private int depth = 0;
+    private long sectionStart = 0; // When the innermost active phase was last started or resumed
+    private long tickAllocationStart = -1;
+    private long frameAllocationStart = -1;
+
+    public FrameProfiler(Settings settings) {
+        enabled = settings.getProfilerEnabled();
+        overlayVisible = enabled && settings.getProfilerOverlay();
+        csvFile = settings.getProfilerCsvFile();
+        for (int i = 0; i < PHASES.length; i++) {
+            phaseTimes[i] = new RollingPercentiles(WINDOW);
+        }
+    }
+
+    /**
+     * beginTick method starts measuring a new tick.
+     */
+    public synchronized void beginTick() {
+        if (!enabled) return;
+        resetCurrentTimes(true);
+        tickAllocationStart = AllocationCounter.allocatedBytes();
+    }
+
+    /**
+     * endTick method records the time of every simulation phase, and the bytes allocated, since beginTick.
+     */
+    public synchronized void endTick() {
+        if (!enabled) return;
+        commit(true);
+        if (tickAllocationStart >= 0) tickAllocations.record(AllocationCounter.allocatedBytes() - tickAllocationStart);
+    }
+
+    /**
+     * beginFrame method starts measuring a new frame.
+     */
+    public synchronized void beginFrame() {
+        if (!enabled) return;
+        resetCurrentTimes(false);
+        frameAllocationStart = AllocationCounter.allocatedBytes();
+    }
+
+    /**
+     * endFrame method records the time of every render phase, and the bytes allocated, since beginFrame.
+     */
+    public synchronized void endFrame() {
+        if (!enabled) return;
+        commit(false);
+        if (frameAllocationStart >= 0) frameAllocations.record(AllocationCounter.allocatedBytes() - frameAllocationStart);
+    }
+
+    /**
+     * begin method starts measuring a phase. The phase that was active until now is paused until end is called.
+     * @param phase The phase.
+     */
+    public synchronized void begin(Phase phase) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        if (depth > 0) {
+            currentTimes[activePhases[depth - 1].ordinal()] += now - sectionStart;
+        }
+        if (depth == MAX_DEPTH) throw new IllegalStateException("Phases nested too deep: " + phase.getLabel());
+        activePhases[depth++] = phase;
+        sectionStart = now;
+    }
+
+    /**
+     * end method stops measuring a phase, and resumes the phase it was nested in, if any.
+     * @param phase The phase, which must be the innermost active phase.
+     */
+    public synchronized void end(Phase phase) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        if (depth == 0 || activePhases[depth - 1] != phase) {
+            throw new IllegalStateException("Phase " + phase.getLabel() + " is not the innermost active phase");
+        }
+        currentTimes[phase.ordinal()] += now - sectionStart;
+        activePhases[--depth] = null;
+        sectionStart = now;
+    }
+
+    private void resetCurrentTimes(boolean simulation) {
+        for (Phase phase : PHASES) {
+            if (phase.simulation == simulation) currentTimes[phase.ordinal()] = 0;
+        }
+    }
+
+    private void commit(boolean simulation) {
+        for (Phase phase : PHASES) {
+            if (phase.simulation == simulation) phaseTimes[phase.ordinal()].record(currentTimes[phase.ordinal()]);
+        }
+    }
+
+    /**
+     * drawOverlay method draws the percentiles of every phase and a graph of its latest samples.
+     * @param g The graphics object, in screen coordinates.
+     * @param x The left edge of the overlay.
+     * @param y The top edge of the overlay.
+     */
+    public synchronized void drawOverlay(Graphics g, int x, int y) {
+        if (!enabled || !overlayVisible) return;
+
+        final int rowHeight = 18;
+        final int textWidth = 340;
+        final int graphWidth = GRAPH_SAMPLES;
+        final int padding = 5;
+        int rows = PHASES.length + 2;
+        Font previousFont = g.getFont();
+        g.setFont(OVERLAY_FONT);
+        g.setColor(new Color(0, 0, 0, 160));
+        g.fillRect(x, y, textWidth + graphWidth + 3 * padding, rows * rowHeight + 2 * padding);
+
+        int rowY = y + padding;
+        for (Phase phase : PHASES) {
+            drawRow(g, phase.getLabel(), phaseTimes[phase.ordinal()], NANOS_PER_MILLI, "ms", x + padding, rowY, textWidth,
+                    graphWidth, rowHeight);
+            rowY += rowHeight;
+        }
+        drawRow(g, "alloc/tick", tickAllocations, BYTES_PER_KILOBYTE, "KB", x + padding, rowY, textWidth, graphWidth,
+                rowHeight);
+        rowY += rowHeight;
+        drawRow(g, "alloc/frame", frameAllocations, BYTES_PER_KILOBYTE, "KB", x + padding, rowY, textWidth, graphWidth,
+                rowHeight);
+        g.setFont(previousFont);
+    }
+
+    /**
+     * drawRow method draws the percentiles of one series as text, and its latest samples as a line graph scaled to the
+     * largest sample shown.
+     */
+    private void drawRow(Graphics g, String label, RollingPercentiles series, double divisor, String unit, int x, int y,
+                         int textWidth, int graphWidth, int rowHeight) {
+        g.setColor(Color.WHITE);
+        g.drawString(String.format(Locale.ROOT, "%-11s p50 %6.2f p95 %6.2f p99 %6.2f %s", label,
+                                   series.percentile(0.50) / divisor, series.percentile(0.95) / divisor,
+                                   series.percentile(0.99) / divisor, unit),
+                     x, y + rowHeight - 5);
+
+        int samples = Math.min(GRAPH_SAMPLES, series.count());
+        if (samples < 2) return;
+        long largest = 1;
+        for (int age = 0; age < samples; age++) {
+            largest = Math.max(largest, series.latest(age));
+        }
+
+        final int graphHeight = rowHeight - 4;
+        int graphX = x + textWidth;
+        int bottom = y + rowHeight - 2;
+        g.setColor(Color.GREEN);
+        int previousX = 0;
+        int previousY = 0;
+        for (int age = samples - 1; age >= 0; age--) {
+            int pointX = graphX + (graphWidth - 1) * (samples - 1 - age) / (samples - 1);
+            int pointY = bottom - (int) (graphHeight * series.latest(age) / largest);
+            if (age < samples - 1) g.drawLine(previousX, previousY, pointX, pointY);
+            previousX = pointX;
+            previousY = pointY;
+        }
+    }
+
+    /**
+     * writeCsv method writes the percentiles of every phase, and of the allocations, to the CSV file in the settings.
+     * Does nothing if the profiler is disabled or no file is set.
+     */
+    public synchronized void writeCsv() {
+        if (!enabled || csvFile.isEmpty()) return;
+
+        Path path = Paths.get(csvFile);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.println("series,unit,samples,mean,p50,p95,p99,max");
+            for (Phase phase : PHASES) {
+                writeCsvRow(out, phase.getLabel(), "ms", phaseTimes[phase.ordinal()], NANOS_PER_MILLI);
+            }
+            writeCsvRow(out, "allocPerTick", "bytes", tickAllocations, 1);
+            writeCsvRow(out, "allocPerFrame", "bytes", frameAllocations, 1);
+        } catch (IOException e) {
+            Logger.getLogger(FrameProfiler.class.getName()).log(Level.WARNING, "Could not write " + path, e);
+        }
+    }
+
+    private static void writeCsvRow(PrintWriter out, String name, String unit, RollingPercentiles series, double divisor) {
+        out.printf(Locale.ROOT, "%s,%s,%d,%.4f,%.4f,%.4f,%.4f,%.4f%n", name, unit, series.count(),
+                   series.mean() / divisor, series.percentile(0.50) / divisor, series.percentile(0.95) / divisor,
+                   series.percentile(0.99) / divisor, series.max() / divisor);
+    }
+
+    /**
+     * toggleOverlay method shows the overlay if it is hidden, and hides it if it is shown.
+     */
+    public void toggleOverlay() {
+        overlayVisible = enabled && !overlayVisible;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    /**
+     * getPhaseTimes returns the rolling window of the times of a phase, in nanoseconds. The window is live; read it
+     * while synchronized on the profiler if the game is running.
+     */
+    public RollingPercentiles getPhaseTimes(Phase phase) {
+        return phaseTimes[phase.ordinal()];
+    }
+
+    public RollingPercentiles getTickAllocations() {
+        return tickAllocations;
+    }
+
+    public RollingPercentiles getFrameAllocations() {
+        return frameAllocations;
+    }
+}
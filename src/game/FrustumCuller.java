@@ -0,0 +1,76 @@
+package game;
+
+import entity.Fish;
+import entity.Broadphase;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The FrustumCuller class finds the fish that are visible through a camera, so that fish outside of the screen are not
+ * drawn. The fish near the screen are looked up in the broadphase of the FishFactory, and each of them is then tested
+ * against the screen with the bounds it will be drawn at. Counts of drawn and culled fish are kept for debugging.
+ */
+public class FrustumCuller {
+
+    // The broadphase holds the bounds of the fish at the current tick, but they are drawn between the previous and the
+    // current tick. The screen is grown by this many pixels when searching it, so that fish are not missed.
+    private static final int SEARCH_MARGIN = 64;
+
+    private final List<Fish> candidates = new ArrayList<>();
+    private final Rectangle view = new Rectangle();
+    private final Rectangle searchArea = new Rectangle();
+    private final Rectangle fishBounds = new Rectangle();
+
+    private int drawnCount = 0;
+    private int culledCount = 0;
+
+    /**
+     * collectVisible method finds the fish that overlap the screen, in the order they should be drawn in.
+     * @param world The game world.
+     * @param alpha The interpolation factor between the previous and the current tick (0-1).
+     * @param visible The list to fill. It is cleared before any fish are added. The player is never added.
+     */
+    public void collectVisible(GameWorld world, double alpha, List<Fish> visible) {
+        visible.clear();
+
+        Camera camera = world.getMainCam();
+        view.setBounds((int) Math.round(camera.getInterpolatedX(alpha)), (int) Math.round(camera.getInterpolatedY(alpha)),
+                       world.getScreenWidth(), world.getScreenHeight());
+        searchArea.setBounds(view.x - SEARCH_MARGIN, view.y - SEARCH_MARGIN,
+                             view.width + 2 * SEARCH_MARGIN, view.height + 2 * SEARCH_MARGIN);
+
+        Broadphase broadphase = world.getFishFactory().getBroadphase();
+        broadphase.query(searchArea, candidates); // In spawn order, which is the order the fish list is drawn in
+
+        Fish player = world.getPlayer();
+        for (int i = 0; i < candidates.size(); i++) {
+            Fish fish = candidates.get(i);
+            if (fish == player) continue;
+
+            fish.getRenderBounds(alpha, fishBounds);
+            if (fishBounds.intersects(view)) {
+                visible.add(fish);
+            }
+        }
+        candidates.clear();
+
+        drawnCount = visible.size();
+        culledCount = Math.max(0, world.getFishFactory().getFishList().size() - 1 - drawnCount); // The player is not counted
+    }
+
+    /**
+     * getDrawnCount returns the number of fish that were visible in the last frame.
+     */
+    public int getDrawnCount() {
+        return drawnCount;
+    }
+
+    /**
+     * getCulledCount returns the number of fish that were skipped in the last frame because they were off screen.
+     */
+    public int getCulledCount() {
+        return culledCount;
+    }
+}
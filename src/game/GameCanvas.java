@@ -0,0 +1,158 @@
+package game;
+
+import media.AssetLoader;
+import media.AudioLoader;
+import media.AudioManagerBorrowedCode;
+import media.ImageManager;
+import util.Settings;
+
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The game.GameCanvas class draws the game with active rendering. Instead of asking Swing to repaint and waiting for the
+ * EDT, the game loop thread draws every frame itself into the back buffer of a BufferStrategy and flips it to the screen.
+ * The simulation and the rendering run on the same thread, so no locking is needed, and the time a frame is shown no
+ * longer depends on how busy the EDT is.
+ * Java2D has no vsync for windowed rendering, so with vsync enabled the frames are paced to the refresh rate of the
+ * display instead of maxFps.
+ */
+public class GameCanvas extends Canvas
+{
+    private static final long serialVersionUID = 1L;
+    private static final int BUFFER_COUNT = 2;
+
+    private final Settings settings;
+    private final MouseInput mouseInput = new MouseInput();
+
+    private final ImageManager imageManager;
+    private final AudioManagerBorrowedCode audioManagerBorrowedCode = new AudioManagerBorrowedCode();
+    private final AudioLoader audioLoader = new AudioLoader(audioManagerBorrowedCode);
+
+    private final GameWorld world;
+    private final WorldRenderer worldRenderer;
+    private final GameLoop gameLoop;
+    private BufferStrategy bufferStrategy = null;
+
+    private final AssetLoader assetLoader;
+    private final CompletableFuture<Void> loading; // Completed when the sprites and sounds have been loaded
+    private CompletableFuture<Void> starting = null;
+
+    /**
+     * Constructor that creates the game world, and starts loading the images and audio clips in the background.
+     * @param settings The settings, loaded once and shared by the whole game.
+     */
+    public GameCanvas(Settings settings) {
+        this.settings = settings;
+        setPreferredSize(new Dimension(settings.getScreenWidth(), settings.getScreenHeight()));
+        setIgnoreRepaint(true); // Every frame is drawn by the game loop
+        mouseInput.listenTo(this);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_F3) world.getProfiler().toggleOverlay();
+            }
+        });
+        setFocusable(true);
+
+        imageManager = new ImageManager(settings);
+        imageManager.initImages(); // The sprites are handed to the world now, and their images are loaded later
+        world = new GameWorld(settings, imageManager, audioLoader, mouseInput);
+        worldRenderer = new WorldRenderer(settings);
+        gameLoop = new GameLoop(world::tick, this::renderFrame, settings.getTickRate(), getFrameRate());
+        gameLoop.setPrecisePacing(true);
+
+        assetLoader = new AssetLoader(settings.getAssetLoadThreads());
+        loading = assetLoader.load(imageManager, audioLoader, (asset, nanos, loaded, total) -> renderLoadingFrame());
+    }
+
+    /**
+     * getFrameRate method returns the number of frames to draw per second: the refresh rate of the display with vsync,
+     * if it is known, and maxFps otherwise.
+     * @return int, frames per second.
+     */
+    private int getFrameRate() {
+        if (settings.getVsync() && !GraphicsEnvironment.isHeadless()) {
+            GraphicsDevice device = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+            int refreshRate = device.getDisplayMode().getRefreshRate();
+            if (refreshRate != DisplayMode.REFRESH_RATE_UNKNOWN) return refreshRate;
+        }
+        return settings.getMaxFps();
+    }
+
+    /**
+     * start method creates the buffer strategy, and starts the game loop and the music as soon as the assets have been
+     * loaded. Until then, the loading screen is drawn. The canvas must be displayable, i.e. added to a window that has
+     * been packed or shown.
+     */
+    public void start() {
+        createBufferStrategy(BUFFER_COUNT);
+        synchronized (this) {
+            bufferStrategy = getBufferStrategy();
+        }
+        requestFocusInWindow();
+        renderLoadingFrame();
+        starting = loading.thenRun(() -> {
+            audioLoader.loopClip("MUSIC", 1);
+            gameLoop.start();
+        });
+    }
+
+    /**
+     * renderLoadingFrame method draws the loading screen. Called from the loading threads whenever a file has been
+     * loaded, so only one of them draws at a time. Does nothing before start, or once the game loop draws the frames.
+     */
+    private synchronized void renderLoadingFrame() {
+        if (bufferStrategy == null || loading == null || loading.isDone()) return;
+        Graphics g = bufferStrategy.getDrawGraphics();
+        try {
+            worldRenderer.renderLoading(g, world, assetLoader.getProgress());
+        } finally {
+            g.dispose();
+        }
+        bufferStrategy.show();
+    }
+
+    /**
+     * renderFrame method draws a frame into the back buffer and shows it. Called from the game loop thread. The frame is
+     * redrawn if the contents of the buffers were lost in the meantime, e.g. when the display mode changed.
+     */
+    private void renderFrame() {
+        do {
+            do {
+                Graphics g = bufferStrategy.getDrawGraphics();
+                try {
+                    g.setClip(0, 0, getWidth(), getHeight());
+                    worldRenderer.render(g, world, gameLoop.getInterpolation());
+                } finally {
+                    g.dispose();
+                }
+            } while (bufferStrategy.contentsRestored());
+
+            bufferStrategy.show();
+        } while (bufferStrategy.contentsLost());
+
+        Toolkit.getDefaultToolkit().sync(); // Flushes the drawing on platforms that buffer it, such as X11
+    }
+
+    /**
+     * stop method stops the simulation thread and waits for the current tick to finish, and stops the audio.
+     */
+    public void stop() {
+        if (starting != null) starting.cancel(false); // Still loading; do not start afterwards
+        gameLoop.stop();
+        audioLoader.stopMusic();
+        audioManagerBorrowedCode.close();
+    }
+
+    public GameWorld getWorld() {
+        return world;
+    }
+
+    public WorldRenderer getWorldRenderer() {
+        return worldRenderer;
+    }
+}
@@ -0,0 +1,142 @@
+package game;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The GameLoop class drives the game on its own thread. The simulation is advanced in fixed steps using an accumulator,
+ * which means that the game runs at the same speed regardless of how often (or how irregularly) frames are drawn.
+ * Rendering is requested separately, up to a maximum frame rate, and can interpolate between the last two ticks using
+ * getInterpolation.
+ * Sleeping is only accurate to about a millisecond, which shows up as uneven frame times. With precise pacing the loop
+ * sleeps until shortly before it is due, and busy-waits for the rest.
+ */
+public class GameLoop implements Runnable {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long MAX_FRAME_TIME = NANOS_PER_SECOND / 4; // Avoids a "spiral of death" after long stalls
+    private static final long SPIN_THRESHOLD = 1_000_000L; // Busy-wait the last millisecond when pacing precisely
+
+    private final Runnable tick;
+    private final Runnable render;
+    private final long tickNanos;
+    private final long frameNanos;
+
+    private volatile boolean running = false;
+    private volatile boolean precisePacing = false;
+    private volatile long simulatedUntil; // The point in real time that the simulation has caught up to
+    private long tickCount = 0;
+    private Thread thread = null;
+
+    /**
+     * Constructor that sets the tick and render callbacks.
+     * @param tick Advances the simulation by one fixed step.
+     * @param render Requests a new frame. Called at most maxFps times per second.
+     * @param tickRate The number of simulation steps per second.
+     * @param maxFps The maximum number of frames per second.
+     */
+    public GameLoop(Runnable tick, Runnable render, int tickRate, int maxFps) {
+        this.tick = tick;
+        this.render = render;
+        tickNanos = NANOS_PER_SECOND / tickRate;
+        frameNanos = NANOS_PER_SECOND / maxFps;
+    }
+
+    /**
+     * start method starts the loop on a new thread.
+     */
+    public void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "GameLoop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * stop method stops the loop after the current iteration, and waits for it to finish unless it is called from the
+     * loop itself. Once it returns, no more ticks are run.
+     */
+    public void stop() {
+        running = false;
+        Thread loopThread = thread;
+        if (loopThread != null && loopThread != Thread.currentThread()) {
+            try {
+                loopThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        long nextFrame = previous;
+        simulatedUntil = previous;
+
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += Math.min(now - previous, MAX_FRAME_TIME);
+            previous = now;
+
+            while (accumulator >= tickNanos) {
+                tick.run();
+                tickCount++;
+                accumulator -= tickNanos;
+            }
+            simulatedUntil = now - accumulator;
+
+            if (now - nextFrame >= 0) {
+                render.run();
+                nextFrame = Math.max(nextFrame + frameNanos, now);
+            }
+
+            // Sleep until either the next tick or the next frame is due
+            long nextTick = now + (tickNanos - accumulator);
+            long wakeUp = Math.min(nextTick, nextFrame);
+            waitUntil(wakeUp);
+        }
+    }
+
+    /**
+     * waitUntil method blocks until the given point in time. Without precise pacing this is a plain sleep.
+     * @param wakeUp The point in time to wake up at, in System.nanoTime.
+     */
+    private void waitUntil(long wakeUp) {
+        if (!precisePacing) {
+            LockSupport.parkNanos(wakeUp - System.nanoTime());
+            return;
+        }
+
+        long remaining = wakeUp - System.nanoTime();
+        if (remaining > SPIN_THRESHOLD) {
+            LockSupport.parkNanos(remaining - SPIN_THRESHOLD);
+        }
+        while (wakeUp - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * setPrecisePacing method sets whether the loop busy-waits the last part of every wait, trading some CPU time for
+     * more even frame times.
+     * @param precisePacing Whether to pace precisely.
+     */
+    public void setPrecisePacing(boolean precisePacing) {
+        this.precisePacing = precisePacing;
+    }
+
+    /**
+     * getInterpolation method returns how far the current time is between the last tick and the next one.
+     * @return double, 0 at the last tick and 1 at the next tick.
+     */
+    public double getInterpolation() {
+        double alpha = (System.nanoTime() - simulatedUntil) / (double) tickNanos;
+        return Math.max(0, Math.min(1, alpha));
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+}
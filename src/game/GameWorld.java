@@ -0,0 +1,336 @@
+package game;
+
+import entity.Entity;
+import entity.EntityRegistry;
+import entity.Fish;
+import entity.FishFactory;
+import entity.Player;
+import media.AudioLoader;
+import media.HUD;
+import media.ImageManager;
+import media.MovingText;
+import util.Point2D;
+import util.ScratchVectors;
+import util.TimerWheel;
+import util.Settings;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The GameWorld class holds the state of a game (the universe, the fish, the player and the camera) and advances it one
+ * tick at a time. It has no dependency on Swing, which means that it can be driven by AppPanel as well as run headless.
+ * Player input is read from an InputSource at the start of each tick.
+ * All randomness in the simulation comes from one seeded random generator, so a world that is created with the same seed
+ * and fed the same input plays out exactly the same way. This is what InputRecorder and InputReplay rely on.
+ */
+public class GameWorld {
+
+    private final Settings settings;
+
+    private final int screenWidth; // Window width
+    private final int screenHeight; // Window height
+
+    private final int mapWidth;
+    private final int mapHeight;
+    private final float spawnRate;
+
+    private static final boolean DEBUG_MODE = false;
+    private static final long HASH_SEED = 0xCBF29CE484222325L; // FNV-1a offset basis and prime, used by stateHash
+    private static final long HASH_PRIME = 0x100000001B3L;
+
+    private final ImageManager imageManager;
+    private final AudioLoader audioLoader;
+    private final InputSource inputSource;
+    private final InputState input = new InputState();
+
+    private final EntityRegistry registry = new EntityRegistry();
+    private final Universe universe = new Universe(registry);
+    private final Background background;
+    private final FishFactory fishFactory;
+    private Player player = null;
+    private Camera mainCam = null;
+    private final HUD hud;
+    private final List<MovingText> movingTexts = new ArrayList<>();
+    private final TimerWheel timerWheel;
+    private final ScratchVectors scratchVectors = new ScratchVectors(); // Temporary points for the simulation thread
+    private final FrameProfiler profiler;
+
+    private final long seed;
+    private final Random random;
+    private InputRecorder inputRecorder = null;
+
+    private long tickCount = 0;
+    private boolean exitRequested = false;
+    private Runnable exitHandler = () -> System.exit(0);
+
+    /**
+     * Constructor that creates the background, the fish factory, the player and the camera.
+     * @param settings The settings to use, shared with the rest of the game.
+     * @param imageManager The sprites to use. They only need to be loaded if the world is rendered.
+     * @param audioLoader The audio clips to play.
+     * @param inputSource Where to read the player input from.
+     */
+    public GameWorld(Settings settings, ImageManager imageManager, AudioLoader audioLoader, InputSource inputSource) {
+        this(settings, imageManager, audioLoader, inputSource, settings.getSeed() != 0 ? settings.getSeed() : System.nanoTime());
+    }
+
+    /**
+     * Constructor that creates the world with the given seed.
+     * @param settings The settings to use, shared with the rest of the game.
+     * @param imageManager The sprites to use. They only need to be loaded if the world is rendered.
+     * @param audioLoader The audio clips to play.
+     * @param inputSource Where to read the player input from.
+     * @param seed The seed of the random generator of the world.
+     */
+    public GameWorld(Settings settings, ImageManager imageManager, AudioLoader audioLoader, InputSource inputSource, long seed) {
+        this.settings = settings;
+        this.seed = seed;
+        random = new Random(seed);
+        screenWidth = settings.getScreenWidth();
+        screenHeight = settings.getScreenHeight();
+        mapWidth = settings.getMapWidth();
+        mapHeight = settings.getMapHeight();
+        spawnRate = settings.getEnemySpawnRate();
+        final int startSize = settings.getPlayerStartSize(); // Start size for the player fish
+
+        this.imageManager = imageManager;
+        this.audioLoader = audioLoader;
+        this.inputSource = inputSource;
+        timerWheel = new TimerWheel(settings.getTickRate(), settings.getTimerWheelSlots());
+        profiler = new FrameProfiler(settings);
+
+        background = new Background(this);
+        fishFactory = new FishFactory(this);
+
+        player = new Player(new Point2D(screenWidth / 2, screenHeight / 2), new Point2D(startSize, startSize), 1, this, fishFactory);
+
+        mainCam = new Camera(this);
+        player.setCamera(mainCam);
+        hud = new HUD(this, player);
+    }
+
+    /**
+     * tick method advances the game by one fixed step: input, timers, spawning, fish updates, removal of dead fish, the
+     * player and the HUD.
+     */
+    public void tick() {
+        profiler.beginTick();
+        for (Entity entity : universe.getEntities()) {
+            entity.savePreviousPosition();
+        }
+        player.savePreviousPosition();
+        mainCam.savePreviousPosition();
+
+        inputSource.sample(tickCount, input);
+        if (inputRecorder != null) inputRecorder.record(input);
+        if (input.isThrust()) {
+            player.thrust(mainCam.toWorld(input.getMouse().x, input.getMouse().y));
+        }
+        timerWheel.advance(); // Runs the timed events that are due this tick
+
+        profiler.begin(FrameProfiler.Phase.SPAWN);
+        fishFactory.spawnFishAroundPlayer(spawnRate);
+        profiler.end(FrameProfiler.Phase.SPAWN);
+
+        profiler.begin(FrameProfiler.Phase.UPDATE);
+        player.updateThrust(); // Once per tick; the player is updated more than once
+        // The player is the first fish in the fish list, and used to be in it twice, so it was updated twice before the
+        // other fish. The speeds are tuned for that, so the extra update is kept.
+        player.update();
+        fishFactory.updateFish();
+        profiler.end(FrameProfiler.Phase.UPDATE);
+
+        profiler.begin(FrameProfiler.Phase.REMOVE_DEAD);
+        fishFactory.removeDead(); // Removes dead fish
+        profiler.end(FrameProfiler.Phase.REMOVE_DEAD);
+
+        profiler.begin(FrameProfiler.Phase.UPDATE);
+        player.update();
+
+        hud.update();
+        updateMovingTexts();
+        profiler.end(FrameProfiler.Phase.UPDATE);
+
+        tickCount++;
+        profiler.endTick();
+
+        if (exitRequested) {
+            finishRecording();
+            exitHandler.run();
+        }
+    }
+
+    /**
+     * startRecording method records the input of every following tick. Must be called before the first tick, so that the
+     * recording can be replayed from the start.
+     * @param inputRecorder The recorder to write to.
+     */
+    public void startRecording(InputRecorder inputRecorder) {
+        if (tickCount != 0) throw new IllegalStateException("Recording must start before the first tick");
+        this.inputRecorder = inputRecorder;
+    }
+
+    /**
+     * finishRecording method ends the recording, if there is one, with the number of ticks and the current state hash.
+     * Must not be called while a tick is running on another thread.
+     */
+    public void finishRecording() {
+        if (inputRecorder == null) return;
+        inputRecorder.finish(tickCount, stateHash());
+        inputRecorder = null;
+    }
+
+    /**
+     * stateHash method calculates a hash of the state of the game: the tick, the player, the camera and every fish. Two
+     * worlds that have played out the same way have the same hash.
+     * @return long, the hash.
+     */
+    public long stateHash() {
+        long hash = mix(HASH_SEED, tickCount);
+        hash = mix(hash, player.getScore());
+        hash = mix(hash, player.getLevel());
+        hash = mix(hash, player.getPosition());
+        hash = mix(hash, mainCam.getPosition());
+        for (Fish fish : fishFactory.getFishList()) {
+            hash = mix(hash, fish.getLevel());
+            hash = mix(hash, fish.getPosition());
+            hash = mix(hash, fish.getVelocity());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * HASH_PRIME;
+    }
+
+    private static long mix(long hash, Point2D point) {
+        hash = mix(hash, Double.doubleToLongBits(point.getX()));
+        return mix(hash, Double.doubleToLongBits(point.getY()));
+    }
+
+    /**
+     * updateMovingTexts moves score texts to the Score HUD position and removes the ones that have arrived.
+     */
+    private void updateMovingTexts() {
+        for (int i = 0; i < movingTexts.size(); i++) {
+            movingTexts.get(i).moveToPosition(hud.getScorePosition());
+        }
+        movingTexts.removeIf(MovingText::getHasReached);
+    }
+
+    /**
+     * exit method ends the game at the end of the current tick. By default this terminates the program.
+     */
+    public void exit() {
+        exitRequested = true;
+    }
+
+    public void setExitHandler(final Runnable exitHandler) {
+        this.exitHandler = exitHandler;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * getTimerWheel returns the wheel that runs timed game events (blinking, invulnerability, chases, etc) on the
+     * simulation thread. Delays are measured in ticks.
+     * @return TimerWheel, the timer wheel.
+     */
+    public TimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+
+    /**
+     * getScratchVectors returns the temporary points of the simulation thread. Only use them from within tick.
+     * @return ScratchVectors, the scratch vectors.
+     */
+    public ScratchVectors getScratchVectors() {
+        return scratchVectors;
+    }
+
+    public List<MovingText> getMovingTexts() {
+        return movingTexts;
+    }
+
+    public int getScreenWidth() {
+        return screenWidth;
+    }
+
+    public int getScreenHeight() {
+        return screenHeight;
+    }
+
+    public int getMapWidth() {
+        return mapWidth;
+    }
+
+    public int getMapHeight() {
+        return mapHeight;
+    }
+
+    /**
+     * getMouse returns the mouse position on the screen. Use Camera.toWorld to get its position in the world.
+     * @return Point, the mouse position.
+     */
+    public Point getMouse() {
+        return input.getMouse();
+    }
+
+    public Player getPlayer() {return player; }
+
+    public Universe getUniverse() { return universe; }
+
+    public EntityRegistry getRegistry() {
+        return registry;
+    }
+
+    public Background getBackground() {
+        return background;
+    }
+
+    public FishFactory getFishFactory() {
+        return fishFactory;
+    }
+
+    public ImageManager getImageManager() {
+        return imageManager;
+    }
+
+    public AudioLoader getAudioLoader() {
+        return audioLoader;
+    }
+
+    public Camera getMainCam() {
+        return mainCam;
+    }
+
+    public HUD getHud() {
+        return hud;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * getRandom returns the random generator of the world. Everything in the simulation that is random must use it.
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    public static boolean inDebugMode() { return DEBUG_MODE; }
+}
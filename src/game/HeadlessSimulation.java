@@ -0,0 +1,142 @@
+package game;
+
+import entity.FishPool;
+import media.AudioLoader;
+import media.AudioManagerBorrowedCode;
+import media.ImageManager;
+import util.AllocationCounter;
+import util.Settings;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The HeadlessSimulation class runs a GameWorld without a window, sound or sprites. Ticks are run back to back as fast as
+ * the CPU allows, with the mouse replaced by an InputSource, and the throughput is reported in ticks per second.
+ * The heap allocations of the simulation thread are reported per tick, once the game has warmed up.
+ * A game recorded with InputRecorder can be replayed instead of the scripted input. The replay runs the same ticks as the
+ * recorded game, which makes it a repeatable benchmark, and checks that it ends up in the same state.
+ * Usage: HeadlessSimulation [ticks] | HeadlessSimulation --replay file
+ */
+public class HeadlessSimulation {
+
+    private static final long DEFAULT_TICKS = 60 * 60 * 10; // Ten minutes of game time at 60 ticks per second
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long WARMUP_TICKS = 60 * 10; // Allocations are only counted after this many ticks
+
+    private final GameWorld world;
+    private boolean running = true;
+
+    /**
+     * Constructor that creates a muted game world without any loaded sprites.
+     * @param settings The settings to use.
+     * @param inputSource Where to read the player input from.
+     */
+    public HeadlessSimulation(Settings settings, InputSource inputSource) {
+        this(settings, inputSource, settings.getSeed() != 0 ? settings.getSeed() : System.nanoTime());
+    }
+
+    /**
+     * Constructor that creates a muted game world with the given seed.
+     * @param settings The settings to use.
+     * @param inputSource Where to read the player input from.
+     * @param seed The seed of the random generator of the world.
+     */
+    public HeadlessSimulation(Settings settings, InputSource inputSource, long seed) {
+        AudioLoader audioLoader = new AudioLoader(new AudioManagerBorrowedCode());
+        audioLoader.setMuted(true);
+        world = new GameWorld(settings, new ImageManager(settings), audioLoader, inputSource, seed);
+        world.setExitHandler(() -> running = false);
+    }
+
+    /**
+     * run method runs the given number of ticks, or until the game ends. The throughput is printed once per second.
+     * @param ticks The number of ticks to run.
+     * @return double, the average number of ticks per second.
+     */
+    public double run(long ticks) {
+        long start = System.nanoTime();
+        long lastReport = start;
+        long ticksAtLastReport = 0;
+        long allocatedAtWarmup = -1;
+
+        long tick = 0;
+        while (running && tick < ticks) {
+            world.tick();
+            tick++;
+            if (tick == WARMUP_TICKS) {
+                allocatedAtWarmup = AllocationCounter.allocatedBytes();
+            }
+
+            long now = System.nanoTime();
+            if (now - lastReport >= NANOS_PER_SECOND) {
+                double tps = (tick - ticksAtLastReport) * NANOS_PER_SECOND / (double) (now - lastReport);
+                System.out.printf("tick %d: %.0f ticks/s, %d fish%n", tick, tps, world.getFishFactory().getFishList().size());
+                lastReport = now;
+                ticksAtLastReport = tick;
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / (double) NANOS_PER_SECOND;
+        double tps = tick / seconds;
+        System.out.printf("Ran %d ticks in %.2f s: %.0f ticks/s, final score %d%n", tick, seconds, tps, world.getPlayer().getScore());
+        FishPool fishPool = world.getFishFactory().getFishPool();
+        System.out.printf("Fish pool: %d hits, %d misses%n", fishPool.getTotalHits(), fishPool.getTotalMisses());
+        if (AllocationCounter.isSupported() && allocatedAtWarmup >= 0 && tick > WARMUP_TICKS) {
+            // Includes the console output above, which is only printed once per second
+            double bytesPerTick = (AllocationCounter.allocatedBytes() - allocatedAtWarmup) / (double) (tick - WARMUP_TICKS);
+            System.out.printf("Allocated %.1f bytes/tick after %d warm-up ticks%n", bytesPerTick, WARMUP_TICKS);
+        }
+        world.getProfiler().writeCsv();
+        return tps;
+    }
+
+    public GameWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * replay method runs a recorded game and checks that it ends in the same state as when it was recorded.
+     * @param settings The settings to use. They must match the ones the game was recorded with.
+     * @param path The recording.
+     * @return boolean, true if the final state matches.
+     * @throws IOException If the recording cannot be read.
+     */
+    public static boolean replay(Settings settings, Path path) throws IOException {
+        InputReplay replay = InputReplay.load(path);
+        if (replay.getTickRate() != settings.getTickRate() || replay.getScreenWidth() != settings.getScreenWidth()
+            || replay.getScreenHeight() != settings.getScreenHeight()) {
+            System.out.printf("Recording was made with %d ticks/s at %dx%d, but the settings have %d ticks/s at %dx%d%n",
+                              replay.getTickRate(), replay.getScreenWidth(), replay.getScreenHeight(),
+                              settings.getTickRate(), settings.getScreenWidth(), settings.getScreenHeight());
+            return false;
+        }
+
+        HeadlessSimulation simulation = new HeadlessSimulation(settings, replay, replay.getSeed());
+        simulation.run(replay.getTickCount());
+
+        long stateHash = simulation.getWorld().stateHash();
+        boolean matches = stateHash == replay.getExpectedStateHash()
+                          && simulation.getWorld().getTickCount() == replay.getTickCount();
+        System.out.printf("Replay of %s (seed %d): state hash %016x, recorded %016x: %s%n", path, replay.getSeed(),
+                          stateHash, replay.getExpectedStateHash(), matches ? "OK" : "MISMATCH");
+        return matches;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+
+        Settings settings = Settings.loadDefault();
+        if (args.length == 2 && args[0].equals("--replay")) {
+            boolean matches = replay(settings, Paths.get(args[1]));
+            System.exit(matches ? 0 : 1);
+        }
+
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_TICKS;
+        final int ticksPerLap = 600;
+        final int thrustInterval = 90;
+        HeadlessSimulation simulation = new HeadlessSimulation(settings, new ScriptedInput(settings.getScreenWidth(), settings.getScreenHeight(), ticksPerLap, thrustInterval));
+        simulation.run(ticks);
+    }
+}
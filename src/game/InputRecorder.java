@@ -0,0 +1,124 @@
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The InputRecorder class writes the input of every tick of a game to a file, so that the game can be replayed with
+ * InputReplay. Together with the seed of the world, the input is all that is needed to play the game out the same way.
+ * The format is compact: a header, then one byte of flags per tick, followed by the mouse movement only if the mouse has
+ * moved since the previous tick. Small movements are stored as one byte per axis. When the game ends, the number of
+ * ticks and a hash of the final state are written, which lets a replay check that it ended up in the same state.
+ *
+ * Header: magic (int), version (byte), seed (long), tick rate (int), screen width (short), screen height (short).
+ * Tick: flags (byte), then mouse x and y (short, short) if FLAG_MOUSE is set, or the change in mouse x and y
+ * (byte, byte) if FLAG_MOUSE_DELTA is set.
+ * End: FLAG_END (byte), tick count (long), state hash (long).
+ */
+public class InputRecorder {
+
+    static final int MAGIC = 0x46464952; // "FFIR"
+    static final int VERSION = 1;
+    static final int FLAG_THRUST = 1;
+    static final int FLAG_MOUSE = 1 << 1;
+    static final int FLAG_MOUSE_DELTA = 1 << 2;
+    static final int FLAG_END = 1 << 7;
+
+    private final Path path;
+    private DataOutputStream out;
+    private int lastMouseX = 0;
+    private int lastMouseY = 0;
+
+    /**
+     * Constructor that creates the file and writes the header.
+     * @param path The file to record to. An existing file is overwritten.
+     * @param seed The seed of the world that is recorded.
+     * @param tickRate The tick rate of the world. A replay needs the same tick rate.
+     * @param screenWidth The width of the screen. The mouse positions are relative to it.
+     * @param screenHeight The height of the screen.
+     * @throws IOException If the file cannot be written.
+     */
+    public InputRecorder(Path path, long seed, int tickRate, int screenWidth, int screenHeight) throws IOException {
+        this.path = path;
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(seed);
+        out.writeInt(tickRate);
+        out.writeShort(screenWidth);
+        out.writeShort(screenHeight);
+    }
+
+    /**
+     * record method writes the input of one tick. Called by the game world right after it has sampled the input.
+     * @param state The input of the tick.
+     */
+    public void record(InputState state) {
+        if (out == null) return;
+
+        int mouseX = state.getMouse().x;
+        int mouseY = state.getMouse().y;
+        int dx = mouseX - lastMouseX;
+        int dy = mouseY - lastMouseY;
+        int flags = state.isThrust() ? FLAG_THRUST : 0;
+        if (dx == 0 && dy == 0) {
+            // Unchanged
+        } else if (dx == (byte) dx && dy == (byte) dy) {
+            flags |= FLAG_MOUSE_DELTA;
+        } else {
+            flags |= FLAG_MOUSE;
+        }
+
+        try {
+            out.writeByte(flags);
+            if ((flags & FLAG_MOUSE_DELTA) != 0) {
+                out.writeByte(dx);
+                out.writeByte(dy);
+            } else if ((flags & FLAG_MOUSE) != 0) {
+                out.writeShort(mouseX);
+                out.writeShort(mouseY);
+            }
+            lastMouseX = mouseX;
+            lastMouseY = mouseY;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * finish method writes the end of the recording and closes the file.
+     * @param tickCount The number of ticks that were recorded.
+     * @param stateHash The hash of the state of the world after the last tick.
+     */
+    public void finish(long tickCount, long stateHash) {
+        if (out == null) return;
+        try {
+            out.writeByte(FLAG_END);
+            out.writeLong(tickCount);
+            out.writeLong(stateHash);
+            out.close();
+            System.out.println("Recorded " + tickCount + " ticks to " + path);
+        } catch (IOException e) {
+            fail(e);
+        }
+        out = null;
+    }
+
+    /**
+     * fail method stops the recording after an error. The game keeps running.
+     */
+    private void fail(IOException e) {
+        Logger.getLogger(InputRecorder.class.getName()).log(Level.WARNING, "Recording to " + path + " failed", e);
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // Already failed
+        }
+        out = null;
+    }
+}
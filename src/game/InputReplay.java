@@ -0,0 +1,143 @@
+package game;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The InputReplay class is an InputSource that plays back a file written by InputRecorder. The whole file is read up
+ * front, so that replaying does no I/O and can run as fast as the simulation allows.
+ * A world created with the recorded seed and fed this input ends up in the same state as the recorded game, which is
+ * checked by comparing the state hash at the end.
+ */
+public class InputReplay implements InputSource {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final long seed;
+    private final int tickRate;
+    private final int screenWidth;
+    private final int screenHeight;
+    private final long tickCount;
+    private final long expectedStateHash;
+
+    // Input of every tick
+    private final short[] mouseX;
+    private final short[] mouseY;
+    private final boolean[] thrust;
+
+    private InputReplay(long seed, int tickRate, int screenWidth, int screenHeight, long tickCount,
+                        long expectedStateHash, short[] mouseX, short[] mouseY, boolean[] thrust) {
+        this.seed = seed;
+        this.tickRate = tickRate;
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.tickCount = tickCount;
+        this.expectedStateHash = expectedStateHash;
+        this.mouseX = mouseX;
+        this.mouseY = mouseY;
+        this.thrust = thrust;
+    }
+
+    /**
+     * load method reads a recording.
+     * @param path The file written by InputRecorder.
+     * @return InputReplay, the recording.
+     * @throws IOException If the file cannot be read, is not a recording, or was not finished.
+     */
+    public static InputReplay load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != InputRecorder.MAGIC) throw new IOException(path + " is not an input recording");
+            int version = in.readUnsignedByte();
+            if (version != InputRecorder.VERSION) throw new IOException("Unsupported recording version " + version);
+            long seed = in.readLong();
+            int tickRate = in.readInt();
+            int screenWidth = in.readShort();
+            int screenHeight = in.readShort();
+
+            short[] mouseX = new short[INITIAL_CAPACITY];
+            short[] mouseY = new short[INITIAL_CAPACITY];
+            boolean[] thrust = new boolean[INITIAL_CAPACITY];
+            short lastX = 0;
+            short lastY = 0;
+            int ticks = 0;
+            while (true) {
+                int flags;
+                try {
+                    flags = in.readUnsignedByte();
+                } catch (EOFException e) {
+                    throw new IOException(path + " ends before the end of the recording; the game was not exited normally", e);
+                }
+                if ((flags & InputRecorder.FLAG_END) != 0) break;
+
+                if (ticks == mouseX.length) {
+                    mouseX = Arrays.copyOf(mouseX, ticks * 2);
+                    mouseY = Arrays.copyOf(mouseY, ticks * 2);
+                    thrust = Arrays.copyOf(thrust, ticks * 2);
+                }
+                if ((flags & InputRecorder.FLAG_MOUSE_DELTA) != 0) {
+                    lastX += in.readByte();
+                    lastY += in.readByte();
+                } else if ((flags & InputRecorder.FLAG_MOUSE) != 0) {
+                    lastX = in.readShort();
+                    lastY = in.readShort();
+                }
+                mouseX[ticks] = lastX;
+                mouseY[ticks] = lastY;
+                thrust[ticks] = (flags & InputRecorder.FLAG_THRUST) != 0;
+                ticks++;
+            }
+
+            long tickCount = in.readLong();
+            long stateHash = in.readLong();
+            if (tickCount != ticks) {
+                throw new IOException("Recording has " + ticks + " ticks of input, but " + tickCount + " ticks were run");
+            }
+            return new InputReplay(seed, tickRate, screenWidth, screenHeight, tickCount, stateHash, mouseX, mouseY, thrust);
+        }
+    }
+
+    /**
+     * sample method hands the recorded input of the given tick to the game world. Ticks after the end of the recording
+     * keep the last mouse position, without thrusting.
+     */
+    @Override
+    public void sample(long tick, InputState state) {
+        if (tickCount == 0) {
+            state.setMouse(0, 0);
+            state.setThrust(false);
+            return;
+        }
+        int index = (int) Math.min(tick, tickCount - 1);
+        state.setMouse(mouseX[index], mouseY[index]);
+        state.setThrust(tick < tickCount && thrust[index]);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public int getScreenWidth() {
+        return screenWidth;
+    }
+
+    public int getScreenHeight() {
+        return screenHeight;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public long getExpectedStateHash() {
+        return expectedStateHash;
+    }
+}
@@ -0,0 +1,15 @@
+package game;
+
+/**
+ * An InputSource supplies the player input to a GameWorld. It is sampled once at the start of every tick, which allows the
+ * input to come from the mouse (AppPanel) as well as from a script when running without a window.
+ */
+public interface InputSource {
+
+    /**
+     * sample method writes the input for the given tick into the input state.
+     * @param tick The number of the tick that is about to run.
+     * @param state The input state to fill.
+     */
+    void sample(long tick, InputState state);
+}
@@ -0,0 +1,29 @@
+package game;
+
+import java.awt.*;
+
+/**
+ * The InputState class holds the player input for a single tick: the mouse position on the screen and whether the player
+ * clicked to thrust.
+ */
+public class InputState {
+
+    private final Point mouse = new Point();
+    private boolean thrust = false;
+
+    public Point getMouse() {
+        return mouse;
+    }
+
+    public void setMouse(int x, int y) {
+        mouse.setLocation(x, y);
+    }
+
+    public boolean isThrust() {
+        return thrust;
+    }
+
+    public void setThrust(final boolean thrust) {
+        this.thrust = thrust;
+    }
+}
@@ -1,6 +1,14 @@
 package game;
 
 import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import util.Settings;
 
 /**
  * The Main class is the main class of the program
@@ -9,16 +17,64 @@ public class Main {
 
     private JFrame frame = new JFrame();
     /**
-     * Constructor that initializes AppPanel and sets title
+     * Constructor that initializes the game view chosen in the settings and sets title
      */
     public Main() {
-	AppPanel panel = new AppPanel();
-	frame.add(panel);
-	frame.pack();
+	Settings settings = Settings.loadDefault();
 	frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
 	frame.setResizable(false);
 	frame.setTitle("FishFishFish");
+
+	final GameWorld world;
+	final Runnable start;
+	final Runnable stop;
+	if ("swing".equalsIgnoreCase(settings.getRenderMode())) {
+	    AppPanel panel = new AppPanel(settings);
+	    frame.add(panel);
+	    world = panel.getWorld();
+	    start = panel::start;
+	    stop = panel::stop;
+	} else {
+	    GameCanvas canvas = new GameCanvas(settings);
+	    frame.add(canvas);
+	    world = canvas.getWorld();
+	    start = canvas::start; // The buffer strategy can only be created once the canvas is on screen
+	    stop = canvas::stop;
+	}
+	frame.pack();
 	frame.setVisible(true);
+
+	startRecording(settings, world);
+	frame.addWindowListener(new WindowAdapter() {
+	    @Override
+	    public void windowClosing(WindowEvent e) {
+		stop.run(); // No tick may run while the recording is finished
+		world.finishRecording();
+	    }
+	});
+	writeProfileOnExit(world);
+	start.run();
+    }
+
+    /**
+     * startRecording method records the input of the game to the file in the settings, if there is one.
+     */
+    private static void startRecording(Settings settings, GameWorld world) {
+	String file = settings.getReplayRecordFile();
+	if (file.isEmpty()) return;
+	try {
+	    world.startRecording(new InputRecorder(Paths.get(file), world.getSeed(), settings.getTickRate(),
+						   settings.getScreenWidth(), settings.getScreenHeight()));
+	} catch (IOException e) {
+	    Logger.getLogger(Main.class.getName()).log(Level.WARNING, "Could not record to " + file, e);
+	}
+    }
+
+    /**
+     * writeProfileOnExit method writes the frame profile of the world to its CSV file when the program ends.
+     */
+    private static void writeProfileOnExit(GameWorld world) {
+	Runtime.getRuntime().addShutdownHook(new Thread(world.getProfiler()::writeCsv, "FrameProfilerDump"));
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,46 @@
+package game;
+
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The MouseInput class collects the mouse input of a window on the EDT, and hands it to the game world at the start of
+ * each tick. It is added as a mouse listener to the component the game is drawn on.
+ */
+public class MouseInput extends MouseAdapter implements InputSource {
+
+    private volatile Point mouse = new Point(); // Mouse position, written by the EDT
+    private final AtomicBoolean thrustRequested = new AtomicBoolean(false);
+
+    /**
+     * listenTo method adds this object as a mouse and mouse motion listener to the given component.
+     * @param component The component the game is drawn on.
+     */
+    public void listenTo(Component component) {
+        component.addMouseListener(this);
+        component.addMouseMotionListener(this);
+    }
+
+    /**
+     * sample method hands the latest mouse position and any pending click to the game world.
+     */
+    @Override
+    public void sample(long tick, InputState state) {
+        Point current = mouse;
+        state.setMouse(current.x, current.y);
+        state.setThrust(thrustRequested.getAndSet(false));
+    }
+
+    @Override
+    public void mousePressed(MouseEvent e) {
+        if(e.getButton() == 1)
+            thrustRequested.set(true); // Handled by the next tick
+    }
+
+    @Override
+    public void mouseMoved(MouseEvent e) {
+        mouse = e.getPoint(); // Updates mouse position
+    }
+}
@@ -0,0 +1,35 @@
+package game;
+
+/**
+ * The ScriptedInput class is an InputSource that does not need a mouse. The cursor circles around the middle of the screen
+ * and the player thrusts at a fixed interval, which keeps the player moving through the map and eating fish.
+ */
+public class ScriptedInput implements InputSource {
+
+    private final int centerX, centerY;
+    private final int radius;
+    private final int ticksPerLap;
+    private final int thrustInterval;
+
+    /**
+     * Constructor that sets the path of the cursor.
+     * @param screenWidth The width of the screen, in pixels.
+     * @param screenHeight The height of the screen, in pixels.
+     * @param ticksPerLap How many ticks it takes the cursor to complete one lap.
+     * @param thrustInterval How many ticks to wait between each thrust. 0 disables thrusting.
+     */
+    public ScriptedInput(int screenWidth, int screenHeight, int ticksPerLap, int thrustInterval) {
+        centerX = screenWidth / 2;
+        centerY = screenHeight / 2;
+        radius = Math.min(screenWidth, screenHeight) / 3;
+        this.ticksPerLap = ticksPerLap;
+        this.thrustInterval = thrustInterval;
+    }
+
+    @Override
+    public void sample(long tick, InputState state) {
+        double angle = 2 * Math.PI * (tick % ticksPerLap) / ticksPerLap;
+        state.setMouse((int) (centerX + Math.cos(angle) * radius), (int) (centerY + Math.sin(angle) * radius));
+        state.setThrust(thrustInterval > 0 && tick % thrustInterval == 0);
+    }
+}
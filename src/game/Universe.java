@@ -1,30 +1,22 @@
 package game;
 
 import entity.Entity;
-import util.Point2D;
+import entity.EntityRegistry;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 /**
- * The Universe class handles all the entities that exist in the game.
+ * The Universe class handles all the entities that exist in the game. It is a view over the entities in the
+ * EntityRegistry that have the UNIVERSE flag.
  */
 public class Universe {
 
-    private List<Entity> entities = new ArrayList<>();
+    private final EntityRegistry registry;
+    private final EntityRegistry.View<Entity> entities;
 
-    public Universe() {
-    }
-
-    /**
-     * move method moves the all the entities in the universe
-     * @param delta Delta value.
-     */
-    public void move(Point2D delta) {
-	for (Entity e : entities) {
-	    e.move(delta);
-	}
+    public Universe(EntityRegistry registry) {
+        this.registry = registry;
+        entities = registry.view(Entity.class, EntityRegistry.UNIVERSE);
     }
 
     /**
@@ -32,7 +24,9 @@ public class Universe {
      * @param entities The entities to add.
      */
     public void addEntities(Collection<Entity> entities) {
-	this.entities.addAll(entities);
+	for (Entity entity : entities) {
+	    addEntity(entity);
+	}
     }
 
     /**
@@ -40,7 +34,7 @@ public class Universe {
      * @param entity The entity to add.
      */
     public void addEntity(Entity entity) {
-	entities.add(entity);
+	registry.add(entity, EntityRegistry.UNIVERSE);
     }
 
     /**
@@ -48,10 +42,10 @@ public class Universe {
      * @param entity The entity to remove.
      */
     public void removeEntity(Entity entity) {
-        entities.remove(entity);
+        registry.removeFlags(entity, EntityRegistry.UNIVERSE);
     }
 
-    public List<Entity> getEntities() {
+    public EntityRegistry.View<Entity> getEntities() {
 	    return entities;
     }
 }
@@ -0,0 +1,169 @@
+package game;
+
+import entity.Fish;
+import entity.Player;
+import media.AudioLoader;
+import media.HUD;
+import media.MovingText;
+import media.SoundMixer;
+import util.RollingPercentiles;
+import util.Settings;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The WorldRenderer class draws a GameWorld: the background, the fish on screen and the player through the main camera,
+ * and the HUD on top. It is shared by the Swing renderer (AppPanel) and the active renderer (GameCanvas).
+ * It also measures the time between frames, and reports percentiles of it at a fixed interval, since a steady frame time
+ * matters more for smooth movement than a high average frame rate.
+ */
+public class WorldRenderer {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final int FRAME_WINDOW = 1024; // Number of frames the percentiles are calculated over
+
+    private final Settings settings;
+    private final FrustumCuller frustumCuller = new FrustumCuller();
+    private final List<Fish> visibleFish = new ArrayList<>();
+
+    private final RollingPercentiles frameTimes = new RollingPercentiles(FRAME_WINDOW);
+    private final long reportIntervalNanos;
+    private long lastFrame = 0;
+    private long lastReport = 0;
+
+    public WorldRenderer(Settings settings) {
+        this.settings = settings;
+        reportIntervalNanos = (long) (settings.getFrameTimeReportInterval() * NANOS_PER_SECOND);
+    }
+
+    /**
+     * render method draws a frame of the world, interpolated between the last two ticks. No game logic is run here.
+     * @param g The graphics object to draw on, in screen coordinates.
+     * @param world The world to draw.
+     * @param alpha The interpolation factor between the previous and the current tick (0-1).
+     */
+    public void render(Graphics g, GameWorld world, double alpha) {
+        recordFrame();
+        FrameProfiler profiler = world.getProfiler();
+        profiler.beginFrame();
+        profiler.begin(FrameProfiler.Phase.RENDER);
+
+        // The world is drawn in world coordinates, with the camera applied as a single translation
+        Camera camera = world.getMainCam();
+        Graphics2D worldGraphics = (Graphics2D) g.create();
+        worldGraphics.translate(-Math.round(camera.getInterpolatedX(alpha)), -Math.round(camera.getInterpolatedY(alpha)));
+
+        // Background
+        world.getBackground().render(worldGraphics, alpha);
+
+        // Render the fish that are on screen
+        frustumCuller.collectVisible(world, alpha, visibleFish);
+        for (int i = 0; i < visibleFish.size(); i++) {
+            visibleFish.get(i).render(worldGraphics, alpha);
+        }
+
+        world.getPlayer().render(worldGraphics, alpha);
+        worldGraphics.dispose();
+        profiler.end(FrameProfiler.Phase.RENDER);
+
+        profiler.begin(FrameProfiler.Phase.HUD);
+        drawHUD(g, world);
+        profiler.end(FrameProfiler.Phase.HUD);
+        profiler.endFrame();
+
+        final int overlayY = 100;
+        profiler.drawOverlay(g, settings.getProgressBarX(), overlayY);
+    }
+
+    /**
+     * renderLoading method draws the loading screen, shown while the sprites and sounds are loaded. The world is not
+     * drawn, since its sprites are not loaded yet.
+     * @param g The graphics object to draw on, in screen coordinates.
+     * @param world The world that is being loaded, for its HUD.
+     * @param progress How much has been loaded (0-1).
+     */
+    public void renderLoading(Graphics g, GameWorld world, double progress) {
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, settings.getScreenWidth(), settings.getScreenHeight());
+        world.getHud().drawProgressBar((float) progress, g);
+        final int textOffsetY = 30;
+        g.setColor(Color.WHITE);
+        g.drawString("Loading... " + Math.round(progress * 100) + "%", settings.getProgressBarX(),
+                     settings.getProgressBarY() + textOffsetY);
+    }
+
+    /**
+     * drawHud renders a media.HUD with a progress bar and a score counter and renders moving text objects.
+     * @param Graphics object.
+     */
+    private void drawHUD(Graphics g, GameWorld world) {
+        Player player = world.getPlayer();
+        HUD hud = world.getHud();
+        float alpha = player.getExperience() / (float)player.getXpToNextLevel(); // Progress value
+        hud.drawProgressBar(alpha, g);
+
+        hud.drawScore("SCORE: " + hud.getAnimatedScore(), g, Color.WHITE);
+        for (MovingText mt : world.getMovingTexts()) {
+            mt.render(g);
+        }
+
+        if (GameWorld.inDebugMode()) {
+            final int debugTextY = 60;
+            final int lineHeight = 15;
+            g.setColor(Color.WHITE);
+            g.drawString("Fish drawn: " + frustumCuller.getDrawnCount() + ", culled: " + frustumCuller.getCulledCount(),
+                         settings.getProgressBarX(), debugTextY);
+            g.drawString(frameTimeSummary(), settings.getProgressBarX(), debugTextY + lineHeight);
+            AudioLoader audioLoader = world.getAudioLoader();
+            SoundMixer mixer = audioLoader.getMixer();
+            g.drawString("Sounds culled: too soon " + audioLoader.getCulledPlays() + ", voice limit "
+                         + mixer.getCulledByLimit() + ", priority " + mixer.getCulledByPriority() + ", queue full "
+                         + mixer.getDroppedCommands(), settings.getProgressBarX(), debugTextY + 2 * lineHeight);
+            g.drawString("Voices stolen: " + mixer.getStolenVoices(), settings.getProgressBarX(),
+                         debugTextY + 3 * lineHeight);
+        }
+    }
+
+    /**
+     * recordFrame method records the time since the previous frame, and prints the frame time percentiles when the
+     * report interval has passed.
+     */
+    private void recordFrame() {
+        long now = System.nanoTime();
+        if (lastFrame != 0) {
+            frameTimes.record(now - lastFrame);
+        } else {
+            lastReport = now;
+        }
+        lastFrame = now;
+
+        if (reportIntervalNanos > 0 && now - lastReport >= reportIntervalNanos) {
+            System.out.println(frameTimeSummary());
+            lastReport = now;
+        }
+    }
+
+    /**
+     * frameTimeSummary method returns the percentiles of the recent frame times as text.
+     * @return String, the summary.
+     */
+    public String frameTimeSummary() {
+        return String.format("Frame time over %d frames: p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms",
+                             frameTimes.count(),
+                             frameTimes.percentile(0.50) / NANOS_PER_MILLI,
+                             frameTimes.percentile(0.95) / NANOS_PER_MILLI,
+                             frameTimes.percentile(0.99) / NANOS_PER_MILLI,
+                             frameTimes.max() / NANOS_PER_MILLI);
+    }
+
+    public RollingPercentiles getFrameTimes() {
+        return frameTimes;
+    }
+
+    public FrustumCuller getFrustumCuller() {
+        return frustumCuller;
+    }
+}
@@ -0,0 +1,145 @@
+package media;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The AssetLoader class loads the sprites and sound clips of the game at startup. Every file is read and decoded as a
+ * task of its own on a fixed number of threads, so the window can show a loading screen instead of waiting for the
+ * large background image and the sounds one after another. When every file has been decoded, the audio clips are
+ * created from the preloaded sounds in their usual order, so a clip gets the same sound indices as when it is loaded
+ * serially.
+ * The time each file took to load is recorded, and printed when loading is done.
+ */
+public class AssetLoader {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * The ProgressListener interface is told about every file that has been loaded. Called from the loading threads.
+     */
+    public interface ProgressListener {
+        /**
+         * assetLoaded method is called after a file has been loaded, or has failed to load.
+         * @param asset The path or file name of the file.
+         * @param nanos The time it took to load the file, in nanoseconds.
+         * @param loaded The number of files loaded so far, including this one.
+         * @param total The number of files to load.
+         */
+        void assetLoaded(String asset, long nanos, int loaded, int total);
+    }
+
+    private final int threadCount;
+    private final AtomicInteger loaded = new AtomicInteger();
+    private volatile int total = 0;
+    private final Map<String, Long> loadTimes = new ConcurrentHashMap<>(); // Nanoseconds per file
+
+    /**
+     * Constructor that sets the number of threads to load with.
+     * @param threadCount The most files that are loaded at the same time.
+     */
+    public AssetLoader(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+    }
+
+    /**
+     * load method starts loading the sprites of the image manager and the clips of the audio loader, and returns
+     * immediately.
+     * @param imageManager The sprites to load. initImages must have been called.
+     * @param audioLoader The clips to load. createAudioClips is called once every file has been decoded.
+     * @param listener Told about every file that has been loaded.
+     * @return CompletableFuture, completed when everything has been loaded and the audio clips have been created.
+     */
+    public CompletableFuture<Void> load(ImageManager imageManager, AudioLoader audioLoader, ProgressListener listener) {
+        List<Sprite> sprites = new ArrayList<>(imageManager.getSpriteHashMap().values());
+        List<String> clipFiles = audioLoader.getClipFileNames();
+        total = sprites.size() + clipFiles.size();
+
+        final long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threadCount, total)), runnable -> {
+            Thread thread = new Thread(runnable, "AssetLoader");
+            thread.setDaemon(true); // Must not keep the game running if the window is closed while loading
+            return thread;
+        });
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (Sprite sprite : sprites) {
+            tasks.add(CompletableFuture.runAsync(
+                    () -> loadAsset(sprite.getPath(), () -> imageManager.loadImage(sprite), listener), executor));
+        }
+        for (String fileName : clipFiles) {
+            tasks.add(CompletableFuture.runAsync(
+                    () -> loadAsset(fileName, () -> preloadClip(audioLoader, fileName), listener), executor));
+        }
+
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).thenRunAsync(() -> {
+            audioLoader.createAudioClips();
+            executor.shutdown();
+            printLoadTimes(System.nanoTime() - start);
+        }, executor);
+    }
+
+    /**
+     * loadAsset method loads one file, and records and reports the time it took. A file that fails to load does not stop
+     * the other files from loading; the loaders already fall back to a placeholder or to silence.
+     */
+    private void loadAsset(String asset, Runnable load, ProgressListener listener) {
+        long start = System.nanoTime();
+        try {
+            load.run();
+        } catch (RuntimeException e) {
+            Logger.getLogger(AssetLoader.class.getName()).log(Level.WARNING, "Could not load " + asset, e);
+        }
+        long nanos = System.nanoTime() - start;
+        loadTimes.put(asset, nanos);
+        listener.assetLoaded(asset, nanos, loaded.incrementAndGet(), total);
+    }
+
+    /**
+     * preloadClip method decodes a sound. If it cannot be decoded, createAudioClips tries again and reports the error.
+     */
+    private static void preloadClip(AudioLoader audioLoader, String fileName) {
+        try {
+            audioLoader.preloadClip(fileName);
+        } catch (UnsupportedAudioFileException | IOException e) {
+            // Reported by createAudioClips
+        }
+    }
+
+    /**
+     * printLoadTimes method prints the total time spent loading, and the time of every file, the slowest first.
+     */
+    private void printLoadTimes(long totalNanos) {
+        System.out.printf("Loaded %d assets in %.1f ms on %d threads%n", total, totalNanos / NANOS_PER_MILLI,
+                          Math.min(threadCount, total));
+        loadTimes.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> System.out.printf("  %s: %.1f ms%n", entry.getKey(), entry.getValue() / NANOS_PER_MILLI));
+    }
+
+    /**
+     * getProgress method returns how much has been loaded.
+     * @return double, from 0 to 1.
+     */
+    public double getProgress() {
+        int totalCount = total;
+        return totalCount == 0 ? 0 : loaded.get() / (double) totalCount;
+    }
+
+    /**
+     * getLoadTimes method returns the time every file took to load so far, in nanoseconds, by path or file name.
+     * @return Map, the load times.
+     */
+    public Map<String, Long> getLoadTimes() {
+        return loadTimes;
+    }
+}
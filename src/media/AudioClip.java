@@ -2,6 +2,8 @@ package media;
 
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.util.Random;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -10,6 +12,8 @@ import java.util.logging.Logger;
 /**
  * The media.AudioClip class is used to play back audio. It gets initialized through the clip's file name, and can be played,
  * looped, and stopped.
+ * A clip can limit how many of its sounds play at the same time, and how soon it can be played again. Plays that come
+ * too soon are culled, unless they have a higher priority than the clip.
  */
 public class AudioClip {
 
@@ -17,16 +21,23 @@ public class AudioClip {
     private int minIndex, maxIndex;
     private boolean loop = true;
     private AudioManagerBorrowedCode audioManager = new AudioManagerBorrowedCode();
+    private Random random = new Random(); // Picks the file to play
+    private final int group; // Voice group in the mixer
+    private SoundPriority priority = SoundPriority.NORMAL;
+    private long minIntervalNanos = 0; // Shortest time between two plays
+    private long lastPlayNanos;
+    private volatile long culledPlays = 0; // Plays that came too soon; only written by the thread that plays the clip
 
     public AudioClip(String fileName, AudioManagerBorrowedCode audioManager){
 	fileNames = new String[1];
 	fileNames[0] = fileName;
 	this.audioManager = audioManager;
+	group = audioManager.addGroup(Integer.MAX_VALUE);
 
 	minIndex = audioManager.getNum(); // Get sample index before adding audio files
 	try {
 	    audioManager.addClip(fileName);
-	} catch (UnsupportedAudioFileException | LineUnavailableException ex) {
+	} catch (UnsupportedAudioFileException | LineUnavailableException | IOException ex) {
 	    Logger.getLogger(AudioClip.class.getName()).log(Level.SEVERE, null, ex);
 	    System.out.println("WARNING: media.AudioClip " + fileName + " not found");
 	}
@@ -36,6 +47,7 @@ public class AudioClip {
     public AudioClip(String[] fileNames, AudioManagerBorrowedCode audioManager){
 	this.fileNames = fileNames;
 	this.audioManager = audioManager;
+	group = audioManager.addGroup(Integer.MAX_VALUE);
 
 	// Sample index = sample count - 1
 	minIndex = audioManager.getNum(); // Get sample index before adding audio files
@@ -43,7 +55,7 @@ public class AudioClip {
 	    for(String file : fileNames) {
 		audioManager.addClip(file);
 	    }
-	} catch (UnsupportedAudioFileException | LineUnavailableException ex) {
+	} catch (UnsupportedAudioFileException | LineUnavailableException | IOException ex) {
 	    Logger.getLogger(AudioClip.class.getName()).log(Level.SEVERE, null, ex);
 	    System.out.println("WARNING: media.AudioClip not found");
 	}
@@ -51,12 +63,53 @@ public class AudioClip {
     }
 
     /**
-     * Play an audio file.
+     * Constructor that also sets the random generator that picks the file to play.
+     * @param random The random generator. It should not be shared with the game world, so that playing sounds, or
+     * muting them, does not change what happens in the game.
+     */
+    public AudioClip(String[] fileNames, AudioManagerBorrowedCode audioManager, Random random){
+	this(fileNames, audioManager);
+	this.random = random;
+    }
+
+    /**
+     * Constructor that also limits how the clip is played.
+     * @param maxVoices The number of sounds of the clip that can play at the same time.
+     * @param minIntervalSeconds The shortest time between two plays of the clip.
+     * @param priority The priority of the clip, when there are more sounds than voices.
+     */
+    public AudioClip(String[] fileNames, AudioManagerBorrowedCode audioManager, Random random, int maxVoices,
+		     double minIntervalSeconds, SoundPriority priority){
+	this(fileNames, audioManager, random);
+	audioManager.setGroupLimit(group, maxVoices);
+	this.minIntervalNanos = (long)(minIntervalSeconds * 1e9);
+	this.lastPlayNanos = System.nanoTime() - minIntervalNanos; // The first play is never too soon
+	this.priority = priority;
+    }
+
+    /**
+     * Play an audio file, with the priority of the clip.
      * If there are several files in the audio clip, pick a random file
      */
     public void play(){
-	int randomIndex = (int)Math.floor(Math.random() * (maxIndex - minIndex) + minIndex); // Fetch a random number between minIndex and maxIndex
-	audioManager.playSound(randomIndex);
+	play(priority);
+    }
+
+    /**
+     * Play an audio file with a given priority, e.g. a higher one for a sound that must be heard. A play with a higher
+     * priority than the clip is never culled for coming too soon.
+     * If there are several files in the audio clip, pick a random file
+     * @param priority The priority of this play.
+     */
+    public void play(SoundPriority priority){
+	long now = System.nanoTime();
+	if (now - lastPlayNanos < minIntervalNanos && priority.compareTo(this.priority) <= 0) {
+	    culledPlays++;
+	    return;
+	}
+	lastPlayNanos = now;
+	int randomIndex = (int)Math.floor(random.nextDouble() * (maxIndex - minIndex) + minIndex); // Fetch a random number between minIndex and maxIndex
+	audioManager.playSound(randomIndex, group, priority);
     }
 
     /**
@@ -66,14 +119,14 @@ public class AudioClip {
      */
     public void loop(double timeBetweenSamples){
 	loop = true;
-	int randomIndex = (int)(Math.random() * (maxIndex - minIndex));
-	double intervalInSeconds = audioManager.getClipLength(fileNames[randomIndex]) + timeBetweenSamples;
+	int randomIndex = (int)(random.nextDouble() * (maxIndex - minIndex));
+	double intervalInSeconds = audioManager.getClipLength(randomIndex + minIndex) + timeBetweenSamples;
 	ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
 	final Runnable play = new Runnable(){
 	    @Override
 	    public void run() {
 		if(loop)
-		    audioManager.playSound(randomIndex + minIndex); // Play audio clip
+		    audioManager.playSound(randomIndex + minIndex, group, priority); // Play audio clip
 		else
 		    scheduler.shutdown();
 	    }
@@ -86,4 +139,12 @@ public class AudioClip {
     public void stop(){
 	loop = false;
     }
+
+    /**
+     * getCulledPlays gets the number of plays that were culled because they came too soon after the previous one.
+     * @return the number of culled plays.
+     */
+    public long getCulledPlays(){
+	return culledPlays;
+    }
 }
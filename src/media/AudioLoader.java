@@ -1,7 +1,13 @@
 package media;
 
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 /**
  * The class AudioLoader is used to load audio into the game by adding entries into a hashmap that contains a name/id
@@ -9,24 +15,76 @@ import java.util.Map;
  */
 public class AudioLoader
 {
+    // Bites happen all the time; a few at once is enough, and they must not drown out anything else
+    private static final int BITE_VOICES = 3;
+    private static final double BITE_INTERVAL = 0.05;
+    private static final int DASH_VOICES = 2;
+    private static final double DASH_INTERVAL = 0.08;
+    private static final int WARNING_VOICES = 1;
+    private static final double WARNING_INTERVAL = 0.5;
+
+    private static final String[] BITE_FILES = { "bite1.wav", "bite2.wav", "bite3.wav", "bite4.wav", "bite5.wav",
+	    "bite6.wav" };
+    private static final String[] DASH_FILES = { "dash1.wav", "dash2.wav" };
+    private static final String[] WARNING_FILES = { "warning.wav" };
+    private static final String[] MUSIC_FILES = { "music1.wav", "music2.wav", "music3.wav", "music4.wav" };
+
     private AudioManagerBorrowedCode audioManager = new AudioManagerBorrowedCode();
 
+    private final Random random; // Picks which file of a clip to play, separately from the game world
+
     public AudioLoader(AudioManagerBorrowedCode audioManager) {
+        this(audioManager, new Random());
+    }
+
+    /**
+     * Constructor that sets the random generator the clips pick their files with, e.g. a seeded one.
+     */
+    public AudioLoader(AudioManagerBorrowedCode audioManager, Random random) {
         this.audioManager = audioManager;
+        this.random = random;
     }
 
     private final Map<String, AudioClip> audioClipHashMap = new HashMap<>();
+    private final Map<String, MusicStream> musicStreamHashMap = new HashMap<>(); // Streamed instead of loaded
+    private boolean muted = false;
 
     /**
-     * Method createAudioClips adds audio clips to the audio clip hashmap
+     * Method createAudioClips adds audio clips to the audio clip hashmap. The music is streamed when it is played, and
+     * is not loaded here.
      */
     public void createAudioClips() {
-        audioClipHashMap.put("BITE", new AudioClip(new String[]{ "bite1.wav", "bite2.wav", "bite3.wav",
-		"bite4.wav", "bite5.wav", "bite6.wav" }, audioManager));
-	audioClipHashMap.put("DASH", new AudioClip(new String[]{ "dash1.wav", "dash2.wav" }, audioManager));
-	audioClipHashMap.put("MUSIC", new AudioClip(new String[] { "music1.wav", "music2.wav", "music3.wav",
-		"music4.wav" }, audioManager));
-	audioClipHashMap.put("WARNING", new AudioClip(new String[] { "warning.wav" }, audioManager));
+        audioClipHashMap.put("BITE", new AudioClip(BITE_FILES, audioManager, random, BITE_VOICES, BITE_INTERVAL,
+		SoundPriority.LOW));
+	audioClipHashMap.put("DASH", new AudioClip(DASH_FILES, audioManager, random, DASH_VOICES, DASH_INTERVAL,
+		SoundPriority.NORMAL));
+	musicStreamHashMap.put("MUSIC", new MusicStream(MUSIC_FILES, random));
+	audioClipHashMap.put("WARNING", new AudioClip(WARNING_FILES, audioManager, random, WARNING_VOICES,
+		WARNING_INTERVAL, SoundPriority.HIGH));
+    }
+
+    /**
+     * Method getClipFileNames lists the files of every clip that createAudioClips loads, but not the music, which is
+     * streamed
+     * @return The file names
+     */
+    public List<String> getClipFileNames() {
+	List<String> fileNames = new ArrayList<>();
+	fileNames.addAll(Arrays.asList(BITE_FILES));
+	fileNames.addAll(Arrays.asList(DASH_FILES));
+	fileNames.addAll(Arrays.asList(WARNING_FILES));
+	return fileNames;
+    }
+
+    /**
+     * Method preloadClip decodes a file ahead of createAudioClips, which then does not have to read it. Can be called
+     * from several threads at once
+     * @param fileName The file to decode
+     * @throws UnsupportedAudioFileException If the file cannot be played
+     * @throws IOException If the file cannot be read
+     */
+    public void preloadClip(String fileName) throws UnsupportedAudioFileException, IOException {
+	audioManager.preloadClip(fileName);
     }
 
     /**
@@ -35,6 +93,12 @@ public class AudioLoader
      * @param timeBetweenSamples The time to wait between each loop
      */
     public void loopClip(String name, double timeBetweenSamples) {
+	if (muted) return;
+	MusicStream music = musicStreamHashMap.get(name);
+	if (music != null) {
+	    music.loop(timeBetweenSamples);
+	    return;
+	}
 	AudioClip clip = getClip(name);
 	if (clip == null) {
 	    System.out.println("Could not play audioClip with name " + name);
@@ -49,6 +113,7 @@ public class AudioLoader
      * @param name The name of the clip to play
      */
     public void playClip(String name) {
+        if (muted) return;
         AudioClip clip = getClip(name);
         if (clip == null) {
 	    System.out.println("Could not play audioClip with name " + name);
@@ -58,6 +123,60 @@ public class AudioLoader
 	}
     }
 
+    /**
+     * Method playClip plays a specified audio clip with a given priority, e.g. a common sound that matters this time
+     * @param name The name of the clip to play
+     * @param priority The priority of this play
+     */
+    public void playClip(String name, SoundPriority priority) {
+	if (muted) return;
+	AudioClip clip = getClip(name);
+	if (clip == null) {
+	    System.out.println("Could not play audioClip with name " + name);
+	}
+	else {
+	    clip.play(priority);
+	}
+    }
+
+    /**
+     * Method getCulledPlays counts the sounds that were not played, because they came too soon after the previous play
+     * of their clip. The sounds the mixer did not play are counted by getMixer.
+     * @return The number of culled plays
+     */
+    public long getCulledPlays() {
+	long culled = 0;
+	for (AudioClip clip : audioClipHashMap.values()) {
+	    culled += clip.getCulledPlays();
+	}
+	return culled;
+    }
+
+    /**
+     * Method getMixer returns the mixer the clips are played by, which counts the sounds it culled or cut off.
+     * @return The mixer
+     */
+    public SoundMixer getMixer() {
+	return audioManager.getMixer();
+    }
+
+    /**
+     * Method stopMusic stops every music stream that is playing.
+     */
+    public void stopMusic() {
+	for (MusicStream music : musicStreamHashMap.values()) {
+	    music.stop();
+	}
+    }
+
+    /**
+     * Method setMuted turns all playback on or off. A muted loader does not need any clips to be created.
+     * @param muted Whether clips should be silently ignored.
+     */
+    public void setMuted(boolean muted) {
+        this.muted = muted;
+    }
+
     /**
      * Method getClip retrieves appropriate audio clip from the hash map
      * @param String, name of the audio that should be played
@@ -3,18 +3,19 @@ package media;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.DataLine;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.UnsupportedAudioFileException;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 // unable to open file '/etc/dconf/db/site': /etc/dconf/db/site: invalid gvdb header; expect degraded performance
 // This file is missing (at least on whatever distro ThinLinc uses), which likely causes a bunch of exceptions and audio delay.
@@ -25,6 +26,7 @@ import java.util.List;
  * such as size, format and so on and is responsible for actually playing the sounds in the game.
  * Once you add a clip, its index is saved as an integer. The first clip is for example played by calling playSound(0).
  * This is done automatically by utilizing AudioClip
+ * The clips are played by a SoundMixer, which keeps one line open instead of opening a new Clip for every sound.
  *
  * source: http://www.java-gaming.org/index.php?topic=1948.0
  * Some modifications have been made.
@@ -32,14 +34,14 @@ import java.util.List;
 
 public class AudioManagerBorrowedCode
 {
-    private static final int SAMPLE_INBITS = 16;
-    private static final float SAMPLE_RATE = 8000.0F;
     private static final int BUFFER_SIZE = 1024;
+    private static final int VOICES = 16; // Sound effects that can play at the same time
     private List<AudioFormat> audioformatList = new ArrayList<>();
-    private List<Integer> sizeList = new ArrayList<>();
-    private List<DataLine.Info> infoList = new ArrayList<>();
-    private List<byte[]> audioList = new ArrayList<>();
+    private List<Long> frameLengthList = new ArrayList<>();
+    private Map<String, Integer> clipIndexMap = new HashMap<>(); // File name to the index of the clip
+    private final SoundMixer mixer = new SoundMixer(VOICES);
     private int num = 0;
+    private final Map<String, DecodedClip> preloadedClips = new ConcurrentHashMap<>(); // Filled by several threads
 
     // Audio clips, file path information etc
     private static final String AUDIO_FOLDER_FILE_PATH = "/audio/";
@@ -49,38 +51,80 @@ public class AudioManagerBorrowedCode
     }
 
     /**
-     * addClip adds an audio clip
+     * preloadClip decodes an audio clip ahead of addClip, and keeps it until addClip is called with the same file name.
+     * Unlike addClip, it can be called from several threads at once, so that the clips can be decoded in parallel while
+     * the clips are still added in a fixed order.
      * @param String of the filename.
-     * @exception UnsupportedAudioFileException,LineUnavailableException
+     * @exception UnsupportedAudioFileException,IOException
+     */
+    public void preloadClip(String fileName)
+	    throws UnsupportedAudioFileException, IOException
+    {
+	preloadedClips.put(fileName, decodeClip(fileName));
+    }
+
+    /**
+     * addClip adds an audio clip. The clip is read from the classpath, so it is found in a packaged build as well. Its
+     * format and length are remembered, so that they never have to be read from the file again. A clip that was
+     * preloaded is not read again.
+     * @param String of the filename.
+     * @exception UnsupportedAudioFileException,LineUnavailableException,IOException
      * @see IOException,Exception
      */
     public void addClip(String fileName)
-	    throws UnsupportedAudioFileException, LineUnavailableException
+	    throws UnsupportedAudioFileException, LineUnavailableException, IOException
+    {
+	DecodedClip clip = preloadedClips.remove(fileName);
+	if (clip == null) clip = decodeClip(fileName);
+
+	mixer.addSamples(clip.samples); // The mixer's index is the same as the clip index
+	audioformatList.add(clip.format);
+	frameLengthList.add(clip.frameLength);
+	clipIndexMap.putIfAbsent(fileName, num);
+
+	num++;
+    }
+
+    /**
+     * decodeClip reads an audio clip and converts it for the mixer. Does not change the state of the manager.
+     * @param String of the filename.
+     * @return DecodedClip the clip.
+     * @exception UnsupportedAudioFileException,IOException
+     */
+    private DecodedClip decodeClip(String fileName)
+	    throws UnsupportedAudioFileException, IOException
     {
 	URL url = getClass().getResource(AUDIO_FOLDER_FILE_PATH + fileName);
-	AudioInputStream audioInputStream = null;
-	try (AudioInputStream inputStream = AudioSystem.getAudioInputStream(loadStream(url.openStream()))) {
-	    audioInputStream = inputStream;
-	} catch (IOException e) {
-	    e.printStackTrace();
+	if (url == null) throw new FileNotFoundException(AUDIO_FOLDER_FILE_PATH + fileName);
+	AudioFormat af;
+	byte[] audio;
+	try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(loadStream(url.openStream()))) {
+	    af = audioInputStream.getFormat();
+	    audio = readFully(audioInputStream);
 	}
-	//AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(loadStream(url.openStream()));
-	AudioFormat af = audioInputStream.getFormat();
-	int size = (int) (af.getFrameSize() * audioInputStream.getFrameLength());
-	byte[] audio = new byte[size];
-	DataLine.Info info = new DataLine.Info(Clip.class, af, size);
+
 	try {
-	    audioInputStream.read(audio, 0, size); // Result of read() is purposely ignored since we don't need it.
-	} catch (IOException e) {
-	    e.printStackTrace();
+	    return new DecodedClip(af, audio.length / af.getFrameSize(), SoundMixer.convert(af, audio));
+	} catch (IllegalArgumentException e) {
+	    throw new UnsupportedAudioFileException(fileName + " cannot be converted for playback: " + e.getMessage());
 	}
+    }
 
-	audioformatList.add(af);
-	sizeList.add(size);
-	infoList.add(info);
-	audioList.add(audio);
-
-	num++;
+    /**
+     * readFully reads the rest of an audio stream. The frame length in the header of a file is not always given, so
+     * the stream is read until it ends.
+     * @param AudioInputStream the stream to read.
+     * @return byte[] the audio data.
+     * @exception IOException
+     */
+    private byte[] readFully(AudioInputStream audioInputStream)
+	    throws IOException
+    {
+	ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+	byte data[] = new byte[BUFFER_SIZE - BUFFER_SIZE % audioInputStream.getFormat().getFrameSize()]; // Whole frames
+	for(int i = audioInputStream.read(data); i != -1; i = audioInputStream.read(data))
+	    byteArrayOutputStream.write(data, 0, i);
+	return byteArrayOutputStream.toByteArray();
     }
 
     /**
@@ -108,61 +152,102 @@ public class AudioManagerBorrowedCode
     }
 
     /**
-     * playSound plays a selected media.AudioClip
+     * playSound plays a selected media.AudioClip. The sound is handed to the mixer thread, so this returns immediately.
      * @param clipIndex index of the audioClip to play.
+     * @param group the voice group of the clip, see addGroup.
+     * @param priority the priority of the sound, when voices run out.
      */
-    public void playSound(int clipIndex) {
-	if(clipIndex > num) {
-	    System.out.println("playSound: sample " + clipIndex + " is not available");
-	}
-	else {
-	    try {
-	        Clip clip;
-		try (Clip c = (Clip) AudioSystem.getLine(infoList.get(clipIndex))) { clip = c; }
-		clip.open(audioformatList.get(clipIndex), audioList.get(clipIndex), 0, (sizeList.get(clipIndex)).intValue());
-		clip.start();
-	    } catch(LineUnavailableException | IllegalArgumentException ex){ // IllegalArgumentException is caught because of a
-		ex.printStackTrace();					     // problem with the IDE (or something). Sometimes
-	    }								     // an IllegalArgumentException is thrown by getLine.
-	}								     // While the exact cause is unknown, it is reasonable
-    }									     // to assume that it is unrelated to the code itself,
-    									     // seeing as it works properly on windows netbeans.
+    public void playSound(int clipIndex, int group, SoundPriority priority) {
+	mixer.play(clipIndex, group, priority);
+    }
+
     /**
-     * getClipLength gets the length of a clip, in seconds.
+     * addGroup adds a voice group, which limits how many of its sounds can play at the same time.
+     * @param maxVoices the limit.
+     * @return the index of the group.
+     */
+    public int addGroup(int maxVoices) {
+	return mixer.addGroup(maxVoices);
+    }
+
+    /**
+     * setGroupLimit changes the limit of a voice group.
+     * @param group the index of the group.
+     * @param maxVoices the new limit.
+     */
+    public void setGroupLimit(int group, int maxVoices) {
+	mixer.setGroupLimit(group, maxVoices);
+    }
+
+    public SoundMixer getMixer() {
+	return mixer;
+    }
+
+    /**
+     * close stops the mixer and closes its line.
+     */
+    public void close() {
+	mixer.close();
+    }
+
+    /**
+     * getClipLength gets the length of a clip, in seconds, from the format and frame count recorded by addClip.
      * @param fileName the name of the file.
-     * @return durationInSeconds, the duration of the clip in seconds.
+     * @return durationInSeconds, the duration of the clip in seconds, or 0 if the clip was not added.
      */
     public double getClipLength(String fileName){
-	double durationInSeconds;
-	try{
-	    File file = new File(System.getProperty("user.dir") + "/src/audio/" + fileName);
-	    AudioInputStream audioInputStream;
-	    try (AudioInputStream audioInStream = AudioSystem.getAudioInputStream(file)) {
-	        audioInputStream = audioInStream;
-	    }
-	    AudioFormat format = getAudioFormat();
-	    long frames = audioInputStream.getFrameLength();
-	    durationInSeconds = (frames+0.0) / format.getFrameRate();
-	} catch(IOException | UnsupportedAudioFileException ex){
-	    durationInSeconds = 0;
-	    ex.printStackTrace();
+	Integer clipIndex = clipIndexMap.get(fileName);
+	if (clipIndex == null) {
+	    System.out.println("getClipLength: " + fileName + " has not been added");
+	    return 0;
 	}
-	return durationInSeconds;
+	return getClipLength(clipIndex);
+    }
+
+    /**
+     * getClipLength gets the length of a clip, in seconds.
+     * @param clipIndex index of the clip.
+     * @return durationInSeconds, the duration of the clip in seconds.
+     */
+    public double getClipLength(int clipIndex){
+	return getFrameLength(clipIndex) / (double) getAudioFormat(clipIndex).getFrameRate();
     }
 
     /**
-     * getAudioFormat returns a new AudioFormat object and sets its parameters (such as sample rate and number of channels).
-     * @return an AudioFormat object
+     * getFrameLength gets the number of sample frames of a clip.
+     * @param clipIndex index of the clip.
+     * @return the number of frames.
      */
-    private AudioFormat getAudioFormat() {
-	int channels = 1;
-	boolean signed = true;
-	boolean bigEndian = false;
-	return new AudioFormat(SAMPLE_RATE, SAMPLE_INBITS, channels, signed, bigEndian);
+    public long getFrameLength(int clipIndex){
+	return frameLengthList.get(clipIndex);
+    }
+
+    /**
+     * getAudioFormat gets the format a clip was stored in, before it was converted for the mixer.
+     * @param clipIndex index of the clip.
+     * @return the AudioFormat of the clip.
+     */
+    public AudioFormat getAudioFormat(int clipIndex){
+	return audioformatList.get(clipIndex);
     }
 
     public int getNum(){
 	return num;
     }
 
+    /**
+     * DecodedClip holds a clip that has been read and converted for the mixer, and the format and length of the file.
+     */
+    private static final class DecodedClip
+    {
+	private final AudioFormat format;
+	private final long frameLength;
+	private final short[] samples;
+
+	private DecodedClip(AudioFormat format, long frameLength, short[] samples) {
+	    this.format = format;
+	    this.frameLength = frameLength;
+	    this.samples = samples;
+	}
+    }
 }
@@ -0,0 +1,71 @@
+package media;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The CommandQueue class is a bounded queue of int commands that any number of threads can add to without locking,
+ * and that one thread takes from. It is a ring buffer in which every slot has a sequence number, which tells the
+ * producers whether the slot is free and the consumer whether it has been filled. A full queue rejects the command
+ * instead of waiting, so a producer never blocks. Nothing is allocated after the queue has been created.
+ */
+class CommandQueue {
+
+    private final int mask;
+    private final int[] commands;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong(); // Next position to add at, shared by the producers
+    private long head = 0; // Next position to take from, only used by the consumer
+
+    /**
+     * Constructor that creates an empty queue.
+     * @param capacity The number of commands the queue can hold. Must be a power of two.
+     */
+    CommandQueue(int capacity) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("Capacity must be a power of two");
+        mask = capacity - 1;
+        commands = new int[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * offer method adds a command. Can be called from any thread.
+     * @param command The command.
+     * @return true if the command was added, false if the queue is full.
+     */
+    boolean offer(int command) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) { // The slot is free at this position
+                if (tail.compareAndSet(position, position + 1)) {
+                    commands[index] = command;
+                    sequences.set(index, position + 1); // Publishes the command to the consumer
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) { // The slot still holds a command from a lap ago
+                return false;
+            } else { // Another producer took the position
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * poll method takes the oldest command. Must only be called from the consumer thread.
+     * @return int, the command, or -1 if the queue is empty.
+     */
+    int poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) return -1;
+        int command = commands[index];
+        sequences.set(index, head + mask + 1); // Frees the slot for the next lap
+        head++;
+        return command;
+    }
+}
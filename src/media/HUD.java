@@ -1,9 +1,9 @@
 package media;
 
 import entity.Player;
-import game.AppPanel;
+import game.GameWorld;
 import util.Point2D;
-import util.PropertiesLoaderBorrowedCode;
+import util.Settings;
 
 import java.awt.*;
 
@@ -15,24 +15,32 @@ import java.awt.*;
  */
 public class HUD {
 
-    private PropertiesLoaderBorrowedCode defaultSettings = new PropertiesLoaderBorrowedCode("src/defaultsettings");
-
-    private final int progressBarBorderThickness = (int) defaultSettings.getValue("hud.progressBar.borderThickness", int.class);
-    private final int progressBarRoundness = (int) defaultSettings.getValue("hud.progressBar.roundness", int.class);
+    private final int progressBarBorderThickness;
+    private final int progressBarRoundness;
+    private final Point2D progressBarPosition;
+    private final Point2D progressBarSize;
 
     private int animatedScore = 0; // Current score
     private int targetScore = 0;
-    private final int scoreIncrement = (int) defaultSettings.getValue("hud.score.increment", int.class);
-    private final int scoreTextSize = (int) defaultSettings.getValue("hud.score.textSize", int.class);
+    private final int scoreIncrement;
+    private final int scoreTextSize;
 
     private final Point2D scorePosition;
     private Player player;
 
-    public HUD(AppPanel appPanel, Player player) {
+    public HUD(GameWorld world, Player player) {
 	final int scoreRightMargin = 200;
 	final int scoreTopMargin = 30;
-	scorePosition = new Point2D(appPanel.getScreenWidth() - scoreRightMargin, scoreTopMargin);
+	scorePosition = new Point2D(world.getScreenWidth() - scoreRightMargin, scoreTopMargin);
         this.player = player;
+
+        Settings settings = world.getSettings();
+        progressBarBorderThickness = settings.getProgressBarBorderThickness();
+        progressBarRoundness = settings.getProgressBarRoundness();
+        progressBarPosition = new Point2D(settings.getProgressBarX(), settings.getProgressBarY());
+        progressBarSize = new Point2D(settings.getProgressBarWidth(), settings.getProgressBarHeight());
+        scoreIncrement = settings.getScoreIncrement();
+        scoreTextSize = settings.getScoreTextSize();
     }
 
     /**
@@ -42,15 +50,7 @@ public class HUD {
      * @param g The awt graphics object.
      */
     public void drawProgressBar(float alpha, Graphics g) {
-        final int progressBarX = (int) defaultSettings.getValue("hud.progressBar.x", int.class);
-        final int progressBarY = (int) defaultSettings.getValue("hud.progressBar.y", int.class);
-        final int progressBarW = (int) defaultSettings.getValue("hud.progressBar.width", int.class);
-        final int progressBarH = (int) defaultSettings.getValue("hud.progressBar.height", int.class);
-        drawProgressBar(
-        	new Point2D(progressBarX, progressBarY),
-		new Point2D(progressBarW, progressBarH),
-		alpha, g
-	);
+        drawProgressBar(progressBarPosition, progressBarSize, alpha, g);
     }
 
     /**
@@ -95,7 +95,7 @@ public class HUD {
 	);
 
 	// Show experience if in debug mode
-	if (AppPanel.inDebugMode()) {
+	if (GameWorld.inDebugMode()) {
 	    g.setColor(Color.WHITE);
 	    g.drawString(player.getExperience() + " / " + player.getXpToNextLevel(),
 			 (int)(position.getX() + size.getX()), (int)position.getY());
@@ -103,14 +103,13 @@ public class HUD {
     }
 
     /**
-     * drawScore method draws the score on the screen and updates its value
+     * drawScore method draws the score on the screen
      * @param textSize size of the text
      * @param value the score value
      * @param g the graphics object
      * @param color the color of the text.
      */
     public void drawScore(int textSize, String value, Graphics g, Color color) {
-	increaseScoreAnimated(scoreIncrement);
 	g.setColor(color);
 	g.setFont(new Font("Courier New", Font.BOLD, textSize));
 	g.drawString(value, (int) scorePosition.getX(), (int) scorePosition.getY());
@@ -125,6 +124,13 @@ public class HUD {
         drawScore(scoreTextSize, value, g, color);
     }
 
+    /**
+     * update method advances the score animation by one tick.
+     */
+    public void update() {
+        increaseScoreAnimated(scoreIncrement);
+    }
+
     /**
      * increaseScoreAnimated method increases the field animatedScore, that
      * is used for keep track of the users current score
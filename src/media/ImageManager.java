@@ -1,6 +1,6 @@
 package media;
 
-import util.PropertiesLoaderBorrowedCode;
+import util.Settings;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
@@ -18,41 +18,46 @@ import java.util.logging.Logger;
  */
 public class ImageManager
 {
-    private PropertiesLoaderBorrowedCode defaultSettings = new PropertiesLoaderBorrowedCode("src/defaultsettings");
-
-    // Background sprite
-    private final int backgroundWidth = (int) defaultSettings.getValue("background.sprite.width", int.class);
-    private final int backgroundHeight = (int) defaultSettings.getValue("background.sprite.height", int.class);
-
-    // Player sprite
-    private final int playerSize = (int) defaultSettings.getValue("player.spriteSize", int.class);
-
-    // Small fish sprite
-    private final int smallWidth = (int) defaultSettings.getValue("basicEnemy.small.width", int.class);
-    private final int smallHeight = (int) defaultSettings.getValue("basicEnemy.small.height", int.class);
-
-    // Medium sprite
-    private final int medWidth = (int) defaultSettings.getValue("basicEnemy.medium.width", int.class);
-    private final int medHeight = (int) defaultSettings.getValue("basicEnemy.medium.height", int.class);
-
-    // Large sprite
-    private final int largeSize = (int) defaultSettings.getValue("basicEnemy.large.width", int.class);
-
-    // Barracuda sprite
-    private final int barrWidth = (int) defaultSettings.getValue("barracuda.size.width", int.class);
-    private final int barrHeight = (int) defaultSettings.getValue("barracuda.size.height", int.class);
+    private final Settings settings;
 
     // Warning sign sprite
     //private static final int WARN_SIZE = 20;
 
     private Map<String, Sprite> spriteHashMap = new HashMap<>();
+    private final SpriteCache spriteCache;
 
-    public ImageManager() {}
+    public ImageManager(Settings settings) {
+        this.settings = settings;
+        final long bytesPerMegabyte = 1024L * 1024L;
+        spriteCache = new SpriteCache(settings.getSpriteCacheMaxMegabytes() * bytesPerMegabyte);
+    }
 
     /**
      * initImages method sets image dimensions and adds sprites to the sprite hashmap
      */
     public void initImages() {
+        // Background sprite
+        final int backgroundWidth = settings.getBackgroundSpriteWidth();
+        final int backgroundHeight = settings.getBackgroundSpriteHeight();
+
+        // Player sprite
+        final int playerSize = settings.getPlayerSpriteSize();
+
+        // Small fish sprite
+        final int smallWidth = settings.getSmallWidth();
+        final int smallHeight = settings.getSmallHeight();
+
+        // Medium sprite
+        final int medWidth = settings.getMediumWidth();
+        final int medHeight = settings.getMediumHeight();
+
+        // Large sprite
+        final int largeSize = settings.getLargeWidth();
+
+        // Barracuda sprite
+        final int barrWidth = settings.getBarracudaWidth();
+        final int barrHeight = settings.getBarracudaHeight();
+
         spriteHashMap.put("BACKGROUND", new Sprite(new BufferedImage(backgroundWidth, backgroundHeight, 2), "/sprites/background.png"));
         spriteHashMap.put("PLAYER", new Sprite(new BufferedImage(playerSize, playerSize, 2), "/sprites/player.png")); // RGBA 32 bit
         spriteHashMap.put("SMALL FISH", new Sprite(new BufferedImage(smallWidth, smallHeight, 2), "/sprites/LevelOne.png"));
@@ -69,16 +74,25 @@ public class ImageManager
      */
     public void loadImages() {
         for (Sprite sprite : spriteHashMap.values()) {
-            try {
-                BufferedImage resourceURI = getResourceURI(sprite.getPath());
-                if (resourceURI != null)
-                    sprite.setBufferedImage(resourceURI);
-            } catch (URISyntaxException | IOException e) { // getResourceURI has to throw an IOException, and must therefore be caught.
-                Logger.getLogger(ImageManager.class.getName()).log(Level.WARNING, null, e);
-                System.out.println("WARNING: Image at path " + sprite.getPath() + " not found!");
-                sprite.setHasPath(false);
-                //e.printStackTrace();
-            }
+            loadImage(sprite);
+        }
+    }
+
+    /**
+     * loadImage method loads the image of one sprite, like loadImages. Sprites can be loaded on different threads at the
+     * same time, as long as initImages has been called first.
+     * @param sprite The sprite to load, from getSpriteHashMap.
+     */
+    public void loadImage(Sprite sprite) {
+        try {
+            BufferedImage resourceURI = getResourceURI(sprite.getPath());
+            if (resourceURI != null)
+                sprite.setBufferedImage(resourceURI);
+        } catch (URISyntaxException | IOException e) { // getResourceURI has to throw an IOException, and must therefore be caught.
+            Logger.getLogger(ImageManager.class.getName()).log(Level.WARNING, null, e);
+            System.out.println("WARNING: Image at path " + sprite.getPath() + " not found!");
+            sprite.setHasPath(false);
+            //e.printStackTrace();
         }
     }
 
@@ -103,4 +117,12 @@ public class ImageManager
         return spriteHashMap;
     }
 
+    /**
+     * getSpriteCache method returns the cache of scaled sprites, used when rendering.
+     * @return SpriteCache, the sprite cache.
+     */
+    public SpriteCache getSpriteCache() {
+        return spriteCache;
+    }
+
 }
@@ -0,0 +1,131 @@
+package media;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The MusicStream class plays music without loading it into memory first. The file is decoded a small chunk at a time
+ * on a thread of its own, and written to a SourceDataLine, so only a fraction of a second of the music is held in memory
+ * at once, no matter how long the track is. Short sound effects are still played by AudioClip.
+ * Like AudioClip.loop, a random file is picked and played over and over, with a pause in between.
+ */
+public class MusicStream {
+
+    private static final String AUDIO_FOLDER_FILE_PATH = "/audio/";
+    private static final int CHUNK_SIZE = 4096; // Bytes decoded and written at a time
+    private static final float LINE_BUFFER_SECONDS = 0.25f; // How much music the line buffers ahead
+
+    private final String[] fileNames;
+    private final Random random;
+    private volatile boolean looping = false;
+    private Thread thread = null;
+
+    /**
+     * Constructor that only remembers the files. Nothing is read until the music is played.
+     * @param fileNames The files to pick from, in the audio folder.
+     * @param random The random generator that picks the file.
+     */
+    public MusicStream(String[] fileNames, Random random) {
+	this.fileNames = fileNames;
+	this.random = random;
+    }
+
+    /**
+     * loop method starts playing a random file continuously on the music thread. Does nothing if the music is already
+     * playing.
+     * @param timeBetweenSamples Time to wait in seconds before the file starts playing again after it is done playing.
+     */
+    public synchronized void loop(double timeBetweenSamples) {
+	if (thread != null) return;
+	String fileName = fileNames[random.nextInt(fileNames.length)];
+	looping = true;
+	thread = new Thread(() -> play(fileName, timeBetweenSamples), "Music");
+	thread.setDaemon(true); // Must not keep the game running after the window is closed
+	thread.start();
+    }
+
+    /**
+     * stop method stops the music within one chunk, and closes the line.
+     */
+    public synchronized void stop() {
+	looping = false;
+	if (thread != null) {
+	    thread.interrupt(); // Ends the pause between two loops
+	    thread = null;
+	}
+    }
+
+    /**
+     * play method streams a file to a SourceDataLine until the music is stopped. Runs on the music thread.
+     * @param fileName The file to play.
+     * @param timeBetweenSamples The pause between two loops, in seconds.
+     */
+    private void play(String fileName, double timeBetweenSamples) {
+	URL url = getClass().getResource(AUDIO_FOLDER_FILE_PATH + fileName);
+	if (url == null) {
+	    System.out.println("WARNING: music " + fileName + " not found");
+	    return;
+	}
+
+	SourceDataLine line = null;
+	byte[] chunk = new byte[CHUNK_SIZE];
+	try {
+	    while (looping) {
+		try (AudioInputStream audioInputStream = openPcm(url)) {
+		    AudioFormat format = audioInputStream.getFormat();
+		    if (line == null) {
+			line = AudioSystem.getSourceDataLine(format);
+			int bufferSize = (int) (format.getFrameRate() * LINE_BUFFER_SECONDS) * format.getFrameSize();
+			line.open(format, bufferSize);
+			line.start();
+		    }
+		    int length = CHUNK_SIZE - CHUNK_SIZE % format.getFrameSize(); // Only whole frames can be written
+		    for (int read = audioInputStream.read(chunk, 0, length); read != -1 && looping;
+			 read = audioInputStream.read(chunk, 0, length)) {
+			line.write(chunk, 0, read);
+		    }
+		}
+		if (looping) {
+		    line.drain();
+		    Thread.sleep((long) (timeBetweenSamples * 1000));
+		}
+	    }
+	} catch (InterruptedException e) {
+	    // Stopped during the pause
+	} catch (IOException | UnsupportedAudioFileException | LineUnavailableException | IllegalArgumentException ex) {
+	    Logger.getLogger(MusicStream.class.getName()).log(Level.SEVERE, "Could not play music " + fileName, ex);
+	} finally {
+	    if (line != null) {
+		line.stop();
+		line.close();
+	    }
+	}
+    }
+
+    /**
+     * openPcm method opens a file as a stream of PCM samples, which is what a SourceDataLine plays. Files in other
+     * encodings are converted while they are read.
+     */
+    private static AudioInputStream openPcm(URL url) throws IOException, UnsupportedAudioFileException {
+	// getAudioInputStream needs a stream that supports mark and reset to detect the file type
+	AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(new BufferedInputStream(url.openStream()));
+	AudioFormat format = audioInputStream.getFormat();
+	AudioFormat.Encoding encoding = format.getEncoding();
+	if (encoding.equals(AudioFormat.Encoding.PCM_SIGNED) || encoding.equals(AudioFormat.Encoding.PCM_UNSIGNED)) {
+	    return audioInputStream;
+	}
+	AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+					  format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+	return AudioSystem.getAudioInputStream(pcm, audioInputStream);
+    }
+}
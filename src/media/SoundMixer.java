@@ -0,0 +1,294 @@
+package media;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The SoundMixer class plays sound effects through a single SourceDataLine that stays open for the whole game. The
+ * sounds are converted to the format of the line when they are added, and a fixed number of voices mix them in software
+ * on a thread of their own.
+ * Playing a sound only puts a command in a lock-free queue, so the game thread never waits for the audio system. The
+ * mixer thread takes the commands at the start of every chunk it mixes, so a sound starts within one chunk.
+ * Sounds are played in groups, one for each AudioClip, and a group can be limited to a number of voices, so that many
+ * copies of the same sound do not pile up. A sound that would go over the limit of its group, or that finds every voice
+ * busy, takes the voice of the lowest priority that has played the longest, if that priority is not higher than its
+ * own. Otherwise the sound is culled. The culled and stolen sounds are counted.
+ */
+public class SoundMixer {
+
+    // Format of the line; every sound is converted to it
+    static final AudioFormat FORMAT = new AudioFormat(44100.0F, 16, 2, true, false);
+    private static final int CHANNELS = 2;
+    private static final int CHUNK_FRAMES = 512; // Frames mixed at a time, about 12 ms
+    private static final int LINE_BUFFER_FRAMES = 4 * CHUNK_FRAMES;
+    private static final int QUEUE_CAPACITY = 64;
+    private static final int MAX_SOUNDS = 1 << 16; // A command holds the sound in 16 bits, the group and priority in 8
+    private static final int MAX_GROUPS = 1 << 8;
+
+    private volatile short[][] sounds = new short[0][]; // Interleaved samples, replaced as a whole when a sound is added
+    private final CommandQueue commands = new CommandQueue(QUEUE_CAPACITY);
+    private final int[] groupLimit = new int[MAX_GROUPS]; // Most voices a group may use
+    private int groupCount = 0;
+
+    // Voices, only used by the mixer thread
+    private final short[][] voiceSound; // null if the voice is free
+    private final int[] voicePosition;
+    private final int[] voiceGroup;
+    private final int[] voicePriority;
+
+    // Counters
+    private final AtomicLong culledByLimit = new AtomicLong(); // Over the limit of the group, and nothing to take over
+    private final AtomicLong culledByPriority = new AtomicLong(); // Every voice busy with a sound of higher priority
+    private final AtomicLong droppedCommands = new AtomicLong(); // The command queue was full
+    private final AtomicLong stolenVoices = new AtomicLong(); // Sounds cut off to make room for another
+
+    private volatile boolean running = false;
+    private volatile Thread thread = null;
+
+    /**
+     * Constructor that creates a mixer. The line is opened when the first sound is played.
+     * @param voiceCount The number of sounds that can play at the same time.
+     */
+    public SoundMixer(int voiceCount) {
+	voiceSound = new short[voiceCount][];
+	voicePosition = new int[voiceCount];
+	voiceGroup = new int[voiceCount];
+	voicePriority = new int[voiceCount];
+    }
+
+    /**
+     * addGroup method adds a group of sounds that share a voice limit.
+     * @param maxVoices The number of sounds of the group that can play at the same time.
+     * @return int, the index of the group.
+     */
+    public synchronized int addGroup(int maxVoices) {
+	if (groupCount == MAX_GROUPS) throw new IllegalStateException("Too many sound groups");
+	groupLimit[groupCount] = Math.max(1, maxVoices);
+	return groupCount++;
+    }
+
+    /**
+     * setGroupLimit method changes the number of sounds of a group that can play at the same time. Sounds that are
+     * already playing are not stopped.
+     * @param group The index returned by addGroup.
+     * @param maxVoices The new limit.
+     */
+    public void setGroupLimit(int group, int maxVoices) {
+	groupLimit[group] = Math.max(1, maxVoices); // Published to the mixer thread by the next play command
+    }
+
+    /**
+     * addSound method converts a sound to the format of the mixer and stores it. Should be called while loading,
+     * before the sound is played.
+     * @param format The format of the sound.
+     * @param audio The sound, in the given format.
+     * @return int, the index to play the sound with.
+     * @throws IllegalArgumentException If the sound cannot be converted.
+     */
+    public int addSound(AudioFormat format, byte[] audio) {
+	return addSamples(convert(format, audio));
+    }
+
+    /**
+     * addSamples method stores a sound that has already been converted by convert, e.g. on another thread while
+     * loading.
+     * @param samples The sound, as returned by convert.
+     * @return int, the index to play the sound with.
+     */
+    public synchronized int addSamples(short[] samples) {
+	if (sounds.length == MAX_SOUNDS) throw new IllegalStateException("Too many sounds");
+	short[][] added = Arrays.copyOf(sounds, sounds.length + 1);
+	added[sounds.length] = samples;
+	sounds = added;
+	return sounds.length - 1;
+    }
+
+    /**
+     * convert method converts a sound to 16 bit little-endian samples at the sample rate and channel count of the mixer.
+     * Does not touch the mixer, so sounds can be converted on any thread.
+     * @throws IllegalArgumentException If the sound cannot be converted.
+     */
+    static short[] convert(AudioFormat format, byte[] audio) {
+	AudioInputStream source = new AudioInputStream(new ByteArrayInputStream(audio), format,
+						       audio.length / format.getFrameSize());
+	byte[] bytes;
+	try (AudioInputStream converted = AudioSystem.getAudioInputStream(FORMAT, source)) {
+	    bytes = converted.readAllBytes();
+	} catch (IOException e) {
+	    throw new IllegalArgumentException("Could not convert " + format, e);
+	}
+	short[] samples = new short[bytes.length / 2];
+	for (int i = 0; i < samples.length; i++) {
+	    samples[i] = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8));
+	}
+	return samples;
+    }
+
+    /**
+     * play method starts playing a sound. Does not block; can be called from any thread.
+     * @param soundIndex The index returned by addSound.
+     * @param group The index returned by addGroup.
+     * @param priority The priority of the sound.
+     */
+    public void play(int soundIndex, int group, SoundPriority priority) {
+	if (soundIndex < 0 || soundIndex >= sounds.length) {
+	    System.out.println("playSound: sample " + soundIndex + " is not available");
+	    return;
+	}
+	if (thread == null) start();
+	if (!commands.offer(priority.ordinal() << 24 | group << 16 | soundIndex)) {
+	    droppedCommands.incrementAndGet(); // The mixer is far behind
+	}
+    }
+
+    private synchronized void start() {
+	if (thread != null) return;
+	running = true;
+	thread = new Thread(this::mix, "Sound mixer");
+	thread.setDaemon(true); // Must not keep the game running after the window is closed
+	thread.start();
+    }
+
+    public long getCulledByLimit() {
+	return culledByLimit.get();
+    }
+
+    public long getCulledByPriority() {
+	return culledByPriority.get();
+    }
+
+    public long getDroppedCommands() {
+	return droppedCommands.get();
+    }
+
+    public long getStolenVoices() {
+	return stolenVoices.get();
+    }
+
+    /**
+     * close method stops the mixer thread and closes the line. Sounds that are still playing are cut off.
+     */
+    public void close() {
+	running = false;
+    }
+
+    /**
+     * mix method opens the line and writes mixed chunks to it until the mixer is closed. Runs on the mixer thread. When
+     * no voice is playing, silence is written, so the line keeps running and new sounds start without delay.
+     */
+    private void mix() {
+	SourceDataLine line;
+	try {
+	    line = AudioSystem.getSourceDataLine(FORMAT);
+	    line.open(FORMAT, LINE_BUFFER_FRAMES * FORMAT.getFrameSize());
+	} catch (LineUnavailableException | IllegalArgumentException ex) {
+	    Logger.getLogger(SoundMixer.class.getName()).log(Level.WARNING, "No audio line, sound effects are off", ex);
+	    return;
+	}
+	line.start();
+
+	int[] sum = new int[CHUNK_FRAMES * CHANNELS];
+	byte[] out = new byte[CHUNK_FRAMES * FORMAT.getFrameSize()];
+	try {
+	    while (running) {
+		for (int command = commands.poll(); command >= 0; command = commands.poll()) {
+		    startVoice(sounds[command & 0xFFFF], (command >>> 16) & 0xFF, command >>> 24);
+		}
+		mixChunk(sum);
+		for (int i = 0; i < sum.length; i++) {
+		    int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sum[i]));
+		    out[2 * i] = (byte) sample;
+		    out[2 * i + 1] = (byte) (sample >> 8);
+		}
+		line.write(out, 0, out.length); // Blocks while the line is full, which paces the loop
+	    }
+	} finally {
+	    line.stop();
+	    line.close();
+	}
+    }
+
+    /**
+     * startVoice method plays a sound on a free voice, unless its group is at its limit. If the group is at its limit,
+     * or no voice is free, the sound takes over the weakest voice of the group, or of all voices, if it can.
+     */
+    private void startVoice(short[] sound, int group, int priority) {
+	int playing = 0;
+	int free = -1;
+	for (int i = 0; i < voiceSound.length; i++) {
+	    if (voiceSound[i] == null) {
+		if (free < 0) free = i;
+	    } else if (voiceGroup[i] == group) {
+		playing++;
+	    }
+	}
+
+	int voice;
+	if (playing >= groupLimit[group]) {
+	    voice = weakestVoice(group, priority);
+	    if (voice < 0) {
+		culledByLimit.incrementAndGet();
+		return;
+	    }
+	} else if (free >= 0) {
+	    voice = free;
+	} else {
+	    voice = weakestVoice(-1, priority);
+	    if (voice < 0) {
+		culledByPriority.incrementAndGet();
+		return;
+	    }
+	}
+	if (voiceSound[voice] != null) stolenVoices.incrementAndGet();
+	voiceSound[voice] = sound;
+	voicePosition[voice] = 0;
+	voiceGroup[voice] = group;
+	voicePriority[voice] = priority;
+    }
+
+    /**
+     * weakestVoice method finds the playing voice of the lowest priority, and of those the one that has played the
+     * longest.
+     * @param group The group to look in, or -1 for every group.
+     * @param priority The priority of the sound that wants the voice. Voices of a higher priority are not returned.
+     * @return int, the voice, or -1 if there is none.
+     */
+    private int weakestVoice(int group, int priority) {
+	int weakest = -1;
+	for (int i = 0; i < voiceSound.length; i++) {
+	    if (voiceSound[i] == null || voicePriority[i] > priority || (group >= 0 && voiceGroup[i] != group)) continue;
+	    if (weakest < 0 || voicePriority[i] < voicePriority[weakest]
+		|| (voicePriority[i] == voicePriority[weakest] && voicePosition[i] > voicePosition[weakest])) {
+		weakest = i;
+	    }
+	}
+	return weakest;
+    }
+
+    /**
+     * mixChunk method adds up the next chunk of every playing voice. Voices that reach the end of their sound are freed.
+     */
+    private void mixChunk(int[] sum) {
+	Arrays.fill(sum, 0);
+	for (int v = 0; v < voiceSound.length; v++) {
+	    short[] sound = voiceSound[v];
+	    if (sound == null) continue;
+	    int position = voicePosition[v];
+	    int length = Math.min(sum.length, sound.length - position);
+	    for (int i = 0; i < length; i++) {
+		sum[i] += sound[position + i];
+	    }
+	    voicePosition[v] = position + length;
+	    if (voicePosition[v] >= sound.length) voiceSound[v] = null;
+	}
+    }
+}
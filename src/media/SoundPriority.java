@@ -0,0 +1,11 @@
+package media;
+
+/**
+ * The SoundPriority enum ranks sound effects. When there are more sounds than voices, a sound only takes the voice of
+ * a sound of the same or a lower priority, so that important sounds are not drowned out by common ones.
+ */
+public enum SoundPriority {
+    LOW, // Sounds that happen all the time, such as fish being eaten
+    NORMAL,
+    HIGH // Sounds the player must hear, such as warnings and the death of the player
+}
@@ -0,0 +1,206 @@
+package media;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The SpriteCache class keeps sprites that have already been scaled, and optionally mirrored, to the size they are drawn
+ * at. Drawing a sprite at a different size than its source image makes Java2D resample the whole image on every draw;
+ * with the cache, that is done once and every later draw is a plain 1:1 copy.
+ * The images are created to be compatible with the screen, so that Java2D can keep them in video memory. When there is no
+ * screen (headless), regular premultiplied ARGB images are used instead.
+ * The cache is limited to a number of bytes, and the least recently drawn images are dropped first. An entity that
+ * changes size (such as the player on level up) simply gets a new image, and the old one ages out.
+ * The cache is not thread safe, and should only be used by the thread that renders the game.
+ */
+public class SpriteCache {
+
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final long maxBytes;
+    private final GraphicsConfiguration graphicsConfiguration;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // Access order, for LRU
+    private final Key lookupKey = new Key(); // Reused by get, so that a lookup does not allocate
+    private long usedBytes = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Constructor that creates an empty cache.
+     * @param maxBytes The maximum total size of the cached images, in bytes.
+     */
+    public SpriteCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        graphicsConfiguration = findGraphicsConfiguration();
+    }
+
+    private static GraphicsConfiguration findGraphicsConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) return null;
+        try {
+            return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        } catch (HeadlessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * get method returns the sprite scaled to the given size. The image is created the first time it is requested.
+     * @param sprite The sprite.
+     * @param width The width to draw the sprite at, in pixels.
+     * @param height The height to draw the sprite at, in pixels.
+     * @param flipped Whether the sprite should be mirrored along its x-axis.
+     * @return Image, an image of exactly width x height pixels, or null if the size is empty.
+     */
+    public Image get(Sprite sprite, int width, int height, boolean flipped) {
+        if (width <= 0 || height <= 0) return null;
+
+        BufferedImage source = sprite.getBufferedImage();
+        lookupKey.set(sprite, width, height, flipped);
+        Entry entry = entries.get(lookupKey);
+        if (entry != null && entry.source == source) {
+            hits++;
+            return entry.image;
+        }
+
+        misses++;
+        if (entry != null) {
+            remove(lookupKey); // The sprite has been given a new image since it was cached
+        }
+        entry = new Entry(source, scale(source, width, height, flipped), (long) width * height * BYTES_PER_PIXEL);
+        entries.put(new Key().set(sprite, width, height, flipped), entry);
+        usedBytes += entry.bytes;
+        evict();
+        return entry.image;
+    }
+
+    /**
+     * invalidate method drops every cached image of a sprite, e.g. after its source image has been replaced.
+     * @param sprite The sprite.
+     */
+    public void invalidate(Sprite sprite) {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> cached = iterator.next();
+            if (cached.getKey().sprite == sprite) {
+                usedBytes -= cached.getValue().bytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * clear method drops every cached image.
+     */
+    public void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) usedBytes -= removed.bytes;
+    }
+
+    /**
+     * evict method drops the least recently used images until the cache fits in its budget. The most recent image is
+     * always kept, even if it is larger than the budget on its own.
+     */
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (usedBytes > maxBytes && entries.size() > 1) {
+            Entry oldest = iterator.next();
+            usedBytes -= oldest.bytes;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * scale method draws the source image into a new image of the given size, mirrored if needed.
+     */
+    private Image scale(BufferedImage source, int width, int height, boolean flipped) {
+        BufferedImage image;
+        if (graphicsConfiguration != null) {
+            image = graphicsConfiguration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        } else {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        if (flipped) {
+            g.drawImage(source, width, 0, -width, height, null);
+        } else {
+            g.drawImage(source, 0, 0, width, height, null);
+        }
+        g.dispose();
+        return image;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * A Key identifies one scaled version of a sprite. Sprites are compared by identity.
+     */
+    private static final class Key {
+        private Sprite sprite;
+        private int width;
+        private int height;
+        private boolean flipped;
+
+        private Key set(Sprite sprite, int width, int height, boolean flipped) {
+            this.sprite = sprite;
+            this.width = width;
+            this.height = height;
+            this.flipped = flipped;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return sprite == other.sprite && width == other.width && height == other.height && flipped == other.flipped;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(sprite);
+            result = 31 * result + width;
+            result = 31 * result + height;
+            return 31 * result + (flipped ? 1 : 0);
+        }
+    }
+
+    private static final class Entry {
+        private final BufferedImage source;
+        private final Image image;
+        private final long bytes;
+
+        private Entry(BufferedImage source, Image image, long bytes) {
+            this.source = source;
+            this.image = image;
+            this.bytes = bytes;
+        }
+    }
+}
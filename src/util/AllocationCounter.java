@@ -0,0 +1,42 @@
+package util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The AllocationCounter class measures how many bytes the current thread has allocated on the heap. It uses the
+ * allocation counter of the HotSpot ThreadMXBean, and reports -1 on JVMs that do not support it.
+ */
+public final class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = findThreadBean();
+
+    private AllocationCounter() {
+    }
+
+    private static com.sun.management.ThreadMXBean findThreadBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+
+        com.sun.management.ThreadMXBean hotspotBean = (com.sun.management.ThreadMXBean) bean;
+        if (!hotspotBean.isThreadAllocatedMemorySupported()) return null;
+        if (!hotspotBean.isThreadAllocatedMemoryEnabled()) hotspotBean.setThreadAllocatedMemoryEnabled(true);
+        return hotspotBean;
+    }
+
+    /**
+     * isSupported method returns whether allocations can be measured on this JVM.
+     */
+    public static boolean isSupported() {
+        return THREAD_BEAN != null;
+    }
+
+    /**
+     * allocatedBytes method returns the total number of bytes allocated by the current thread so far.
+     * @return long, the number of bytes, or -1 if it is not supported.
+     */
+    public static long allocatedBytes() {
+        if (THREAD_BEAN == null) return -1;
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
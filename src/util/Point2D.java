@@ -1,9 +1,13 @@
 package util;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
- * The Point2D class hold a pair of values, and supports various operators such as addition and multiplication
+ * The Point2D class hold a pair of values, and supports various operators such as addition and multiplication.
+ * Every operator comes in three forms: a static method that returns a new point, a static method that writes its result
+ * to an output point, and (where it makes sense) an instance method that changes the point in place. The last two do not
+ * allocate, and are the ones to use in code that runs every tick.
  */
 public class Point2D {
 
@@ -30,6 +34,16 @@ public class Point2D {
         return new Point2D(-x, -y);
     }
 
+    /**
+     * invert method inverts the x- and y-value of this point in place.
+     * @return Point2D, this point.
+     */
+    public Point2D invert() {
+        x = -x;
+        y = -y;
+        return this;
+    }
+
     /**
      * sum method calculates the sum of two point2D objects
      * @param other The other point to add.
@@ -43,6 +57,17 @@ public class Point2D {
 	);
     }
 
+    /**
+     * sum method calculates the sum of two Point2D objects without allocating.
+     * @param a The first point.
+     * @param b The other point.
+     * @param out The point to store the result in. May be the same object as a or b.
+     * @return Point2D, the out point.
+     */
+    public static Point2D sum(Point2D a, Point2D b, Point2D out) {
+        return out.set(a.x + b.x, a.y + b.y);
+    }
+
     /**
      * difference method that calculates the difference of two Point2D objects.
      * @param Point2D two Point2D objects.
@@ -56,6 +81,17 @@ public class Point2D {
 	);
     }
 
+    /**
+     * difference method calculates the difference of two Point2D objects without allocating.
+     * @param a The point to subtract from.
+     * @param b The point to subtract.
+     * @param out The point to store the result in. May be the same object as a or b.
+     * @return Point2D, the out point.
+     */
+    public static Point2D difference(Point2D a, Point2D b, Point2D out) {
+	return out.set(a.x - b.x, a.y - b.y);
+    }
+
     /**
      * product method that calculates the product of two Point2D objects.
      * @param Point2D two Point2D objects.
@@ -69,6 +105,17 @@ public class Point2D {
 	);
     }
 
+    /**
+     * product method calculates the product of two Point2D objects without allocating.
+     * @param a The first point.
+     * @param b The other point.
+     * @param out The point to store the result in. May be the same object as a or b.
+     * @return Point2D, the out point.
+     */
+    public static Point2D product(Point2D a, Point2D b, Point2D out) {
+	return out.set(a.x * b.x, a.y * b.y);
+    }
+
     /**
      * product method that calculates the product of a Point2D object with a value(scalar)
      * @param Point2D two Point2D objects.
@@ -82,6 +129,17 @@ public class Point2D {
 	);
     }
 
+    /**
+     * product method calculates the product of a Point2D object with a scalar without allocating.
+     * @param point The point.
+     * @param scalar The value to multiply with.
+     * @param out The point to store the result in. May be the same object as point.
+     * @return Point2D, the out point.
+     */
+    public static Point2D product(Point2D point, double scalar, Point2D out) {
+        return out.set(point.x * scalar, point.y * scalar);
+    }
+
     /**
      * distance method that calculates the distance between two Point2D objects.
      * @param a The first point object
@@ -118,6 +176,17 @@ public class Point2D {
 	);
     }
 
+    /**
+     * xyComponents method calculates the x and y components given the hypotenuse and an angle, without allocating.
+     * @param value The hypotenuse.
+     * @param angle The angle in radians.
+     * @param out The point to store the components in.
+     * @return Point2D, the out point.
+     */
+    public static Point2D xyComponents(double value, double angle, Point2D out) {
+    	return out.set(Math.cos(angle) * value, Math.sin(angle) * value);
+    }
+
     /**
      * listAverage method calculates the average point in a collection of Point2D.
      * @param list The collection of points.
@@ -135,6 +204,25 @@ public class Point2D {
 	);
     }
 
+    /**
+     * listAverage method calculates the average point in a list of Point2D without allocating.
+     * @param list The points. Indexed access is used, so that no iterator is created.
+     * @param out The point to store the average in. It is set to (0, 0) if the list is empty.
+     * @return Point2D, the out point.
+     */
+    public static Point2D listAverage(List<Point2D> list, Point2D out) {
+	double sumX = 0;
+	double sumY = 0;
+	int count = list.size();
+	for (int i = 0; i < count; i++) {
+	    Point2D sample = list.get(i);
+	    sumX += sample.x;
+	    sumY += sample.y;
+	}
+	if (count == 0) return out.set(0, 0);
+	return out.set(sumX / count, sumY / count);
+    }
+
     /**
      * clamp method constrains the values in a point between two points.
      * @param point The point to clamp.
@@ -148,6 +236,19 @@ public class Point2D {
 	return point;
     }
 
+    /**
+     * clamp method constrains the values in a point between two points, without allocating.
+     * @param point The point to clamp.
+     * @param min The minimum value.
+     * @param max The maximum value.
+     * @param out The point to store the clamped value in. May be the same object as point.
+     * @return Point2D, the out point.
+     */
+    public static Point2D clamp(Point2D point, Point2D min, Point2D max, Point2D out) {
+        return out.set(Math.min(Math.max(point.x, min.x), max.x),
+		       Math.min(Math.max(point.y, min.y), max.y));
+    }
+
     /**
      * clampMin method constrains the minimum values of a point.
      * @param point The point to clamp.
@@ -160,6 +261,17 @@ public class Point2D {
 	    );
     }
 
+    /**
+     * clampMin method constrains the minimum values of a point, without allocating.
+     * @param point The point to clamp.
+     * @param min The minimum value.
+     * @param out The point to store the clamped value in. May be the same object as point.
+     * @return Point2D, the out point.
+     */
+    public static Point2D clampMin(Point2D point, Point2D min, Point2D out) {
+        return out.set(Math.max(point.x, min.x), Math.max(point.y, min.y));
+    }
+
     /**
      * clampMax method constrains the maximum values of a point.
      * @param point The point to clamp.
@@ -172,6 +284,17 @@ public class Point2D {
 	);
     }
 
+    /**
+     * clampMax method constrains the maximum values of a point, without allocating.
+     * @param point The point to clamp.
+     * @param max The maximum value.
+     * @param out The point to store the clamped value in. May be the same object as point.
+     * @return Point2D, the out point.
+     */
+    public static Point2D clampMax(Point2D point, Point2D max, Point2D out) {
+	return out.set(Math.min(point.x, max.x), Math.min(point.y, max.y));
+    }
+
     @Override
     public String toString() {
 	return x + ", " + y;
@@ -180,10 +303,68 @@ public class Point2D {
     /**
      * add method adds the values of this point with another point.
      * @param other The point to add.
+     * @return Point2D, this point.
      */
-    public void add(Point2D other) {
+    public Point2D add(Point2D other) {
         x += other.x;
         y += other.y;
+        return this;
+    }
+
+    /**
+     * subtract method subtracts the values of another point from this point.
+     * @param other The point to subtract.
+     * @return Point2D, this point.
+     */
+    public Point2D subtract(Point2D other) {
+        x -= other.x;
+        y -= other.y;
+        return this;
+    }
+
+    /**
+     * multiply method multiplies the values of this point with a scalar.
+     * @param scalar The value to multiply with.
+     * @return Point2D, this point.
+     */
+    public Point2D multiply(double scalar) {
+        x *= scalar;
+        y *= scalar;
+        return this;
+    }
+
+    /**
+     * multiply method multiplies the values of this point with the values of another point.
+     * @param other The point to multiply with.
+     * @return Point2D, this point.
+     */
+    public Point2D multiply(Point2D other) {
+        x *= other.x;
+        y *= other.y;
+        return this;
+    }
+
+    /**
+     * set method sets both values of this point.
+     * @param x The new x-value.
+     * @param y The new y-value.
+     * @return Point2D, this point.
+     */
+    public Point2D set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    /**
+     * set method copies the values of another point into this point.
+     * @param other The point to copy.
+     * @return Point2D, this point.
+     */
+    public Point2D set(Point2D other) {
+        x = other.x;
+        y = other.y;
+        return this;
     }
 
     public void addX(double increment) {
@@ -39,6 +39,8 @@ public class PropertiesLoaderBorrowedCode
 	    return Boolean.parseBoolean(value);
 	if (type == int.class)
 	    return Integer.parseInt(value);
+	if (type == long.class)
+	    return Long.parseLong(value);
 	if (type == float.class)
 	    return Float.parseFloat(value);
 	if (type == double.class) {
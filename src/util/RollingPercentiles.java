@@ -0,0 +1,105 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * The RollingPercentiles class keeps the latest samples of a measurement (such as frame times) in a fixed size window,
+ * and calculates percentiles over them. Recording a sample is O(1) and does not allocate; calculating percentiles sorts
+ * a copy of the window, so it is meant to be done occasionally (e.g. once per report), not for every sample.
+ */
+public class RollingPercentiles {
+
+    private final long[] samples;
+    private final long[] sorted;
+    private int count = 0;
+    private int next = 0;
+    private boolean sortedIsValid = false;
+
+    /**
+     * Constructor that creates an empty window.
+     * @param windowSize The number of samples to keep.
+     */
+    public RollingPercentiles(int windowSize) {
+        if (windowSize <= 0) throw new IllegalArgumentException("windowSize must be positive");
+        samples = new long[windowSize];
+        sorted = new long[windowSize];
+    }
+
+    /**
+     * record method adds a sample, replacing the oldest one if the window is full.
+     * @param value The sample.
+     */
+    public void record(long value) {
+        samples[next] = value;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        sortedIsValid = false;
+    }
+
+    /**
+     * percentile method returns the sample below which the given fraction of the samples in the window fall, using the
+     * nearest rank.
+     * @param fraction The percentile as a fraction, e.g. 0.99 for the 99th percentile.
+     * @return long, the sample, or 0 if there are no samples.
+     */
+    public long percentile(double fraction) {
+        if (count == 0) return 0;
+        sort();
+        int rank = (int) Math.ceil(fraction * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))];
+    }
+
+    /**
+     * max method returns the largest sample in the window.
+     */
+    public long max() {
+        if (count == 0) return 0;
+        sort();
+        return sorted[count - 1];
+    }
+
+    /**
+     * mean method returns the average of the samples in the window.
+     */
+    public double mean() {
+        if (count == 0) return 0;
+        long sum = 0;
+        for (int i = 0; i < count; i++) sum += samples[i];
+        return sum / (double) count;
+    }
+
+    /**
+     * latest method returns a recent sample, without sorting.
+     * @param age 0 for the most recent sample, 1 for the one before it, and so on. Must be less than count.
+     * @return long, the sample.
+     */
+    public long latest(int age) {
+        if (age < 0 || age >= count) throw new IndexOutOfBoundsException("age " + age + ", count " + count);
+        int index = next - 1 - age;
+        if (index < 0) index += samples.length;
+        return samples[index];
+    }
+
+    /**
+     * count method returns the number of samples in the window.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * clear method removes every sample.
+     */
+    public void clear() {
+        count = 0;
+        next = 0;
+        sortedIsValid = false;
+    }
+
+    private void sort() {
+        if (sortedIsValid) return;
+        System.arraycopy(samples, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        sortedIsValid = true;
+    }
+}
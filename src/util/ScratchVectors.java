@@ -0,0 +1,64 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * The ScratchVectors class hands out temporary Point2D objects for calculations that run every tick, so that they do not
+ * have to be allocated. The points are kept on a stack: take a mark, acquire as many points as needed, and release back
+ * to the mark when done. Points acquired after the mark must not be kept after it has been released.
+ * A ScratchVectors object is not thread safe, and should only be used by the thread that owns it.
+ */
+public class ScratchVectors {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Point2D[] vectors = new Point2D[INITIAL_CAPACITY];
+    private int top = 0;
+
+    public ScratchVectors() {
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = new Point2D();
+        }
+    }
+
+    /**
+     * mark method returns the current top of the stack, to be passed to release.
+     * @return int, the mark.
+     */
+    public int mark() {
+        return top;
+    }
+
+    /**
+     * acquire method returns a temporary point set to (0, 0). The stack grows if it runs out of points.
+     * @return Point2D, the point.
+     */
+    public Point2D acquire() {
+        if (top == vectors.length) {
+            vectors = Arrays.copyOf(vectors, top * 2);
+            for (int i = top; i < vectors.length; i++) {
+                vectors[i] = new Point2D();
+            }
+        }
+        return vectors[top++].set(0, 0);
+    }
+
+    /**
+     * acquire method returns a temporary point with the given values.
+     * @param x The x-value.
+     * @param y The y-value.
+     * @return Point2D, the point.
+     */
+    public Point2D acquire(double x, double y) {
+        return acquire().set(x, y);
+    }
+
+    /**
+     * release method gives back every point acquired since the mark was taken.
+     * @param mark The mark returned by mark.
+     */
+    public void release(int mark) {
+        if (mark < 0 || mark > top) throw new IllegalArgumentException("Invalid scratch mark: " + mark);
+        top = mark;
+    }
+}
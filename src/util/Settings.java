@@ -0,0 +1,527 @@
+package util;
+
+/**
+ * The Settings class is an immutable, typed snapshot of the settings file. It is loaded once at startup and shared by
+ * every part of the game, so that no file reads or string parsing happen while the game is running.
+ * Each property in the settings file has a corresponding getter.
+ */
+public final class Settings {
+
+    public static final String DEFAULT_FILE = "src/defaultsettings";
+
+    // Basic settings
+    private final int screenWidth;
+    private final int screenHeight;
+    private final int mapWidth;
+    private final int mapHeight;
+    private final float enemySpawnRate;
+    private final int tickRate;
+    private final int maxFps;
+    private final String renderMode;
+    private final boolean vsync;
+    private final float frameTimeReportInterval;
+    private final boolean profilerEnabled;
+    private final boolean profilerOverlay;
+    private final String profilerCsvFile;
+    private final String replayRecordFile;
+    private final long seed;
+    private final int timerWheelSlots;
+    private final int spriteCacheMaxMegabytes;
+    private final int assetLoadThreads;
+    private final int backgroundSpriteWidth;
+    private final int backgroundSpriteHeight;
+    private final int backgroundTileSize;
+    private final int backgroundMaxCachedTiles;
+
+    // Fish settings
+    private final float fishMovingTextVel;
+    private final int fishMovingTextSize;
+    private final int fishDistanceOfRemoval;
+
+    // Fish factory settings
+    private final float fishSpeed;
+    private final int spawnScreenMargin;
+    private final int barracudaAdditionalMargin;
+    private final int fishPoolMaxSize;
+
+    // Player settings
+    private final int playerStartSize;
+    private final int playerSpriteSize;
+    private final double thrustSpeed;
+    private final double thrustDuration;
+    private final float thrustTimeIncrement;
+    private final int thrustSubSteps;
+    private final float playerMaxVelocity;
+    private final float playerMovingTextVel;
+    private final int playerMovingTextSize;
+    private final int initialXpToNextLevel;
+    private final int maxLevel;
+    private final float playerMouthSizeFactor;
+
+    // Basic enemy settings
+    private final int smallWidth;
+    private final int smallHeight;
+    private final float schoolSpawnRate;
+    private final int mediumWidth;
+    private final int mediumHeight;
+    private final int mediumMouthSize;
+    private final float mediumSpawnRate;
+    private final int largeWidth;
+    private final int largeHeight;
+    private final float largeSpawnRate;
+
+    // Barracuda settings
+    private final float barracudaWaitTime;
+    private final float barracudaChaseTime;
+    private final int barracudaChaseVelocity;
+    private final int barracudaWidth;
+    private final int barracudaHeight;
+    private final int barracudaColliderSizeX;
+    private final int barracudaColliderSizeY;
+    private final int barracudaColliderOffsetX;
+    private final int barracudaColliderOffsetY;
+    private final int barracudaMouthSize;
+    private final int barracudaMouthOffsetX;
+    private final int barracudaMouthOffsetY;
+    private final int barracudaTailBiteXp;
+    private final int barracudaTailBiteTextOffsetY;
+    private final float barracudaSpawnRate;
+
+    // Collision settings
+    private final String broadphase;
+    private final int collisionGridCellSize;
+    private final boolean fishStore;
+    private final boolean parallelCollision;
+
+    // Camera settings
+    private final int cameraMaxMovListSamples;
+
+    // HUD settings
+    private final int progressBarBorderThickness;
+    private final int progressBarRoundness;
+    private final int progressBarX;
+    private final int progressBarY;
+    private final int progressBarWidth;
+    private final int progressBarHeight;
+    private final int scoreTextSize;
+    private final int scoreIncrement;
+
+    /**
+     * Constructor that reads and parses every property. Throws IllegalArgumentException if a property is missing.
+     * @param defaultSettings The loaded properties file.
+     */
+    private Settings(PropertiesLoaderBorrowedCode defaultSettings) {
+	screenWidth = (int) defaultSettings.getValue("screen.width", int.class);
+	screenHeight = (int) defaultSettings.getValue("screen.height", int.class);
+	mapWidth = (int) defaultSettings.getValue("map.width", int.class);
+	mapHeight = (int) defaultSettings.getValue("map.height", int.class);
+	enemySpawnRate = (float) defaultSettings.getValue("enemy.spawnRate", float.class);
+	tickRate = (int) defaultSettings.getValue("simulation.tickRate", int.class);
+	maxFps = (int) defaultSettings.getValue("render.maxFps", int.class);
+	renderMode = (String) defaultSettings.getValue("render.mode", String.class);
+	vsync = (boolean) defaultSettings.getValue("render.vsync", boolean.class);
+	frameTimeReportInterval = (float) defaultSettings.getValue("render.frameTimeReportInterval", float.class);
+	profilerEnabled = (boolean) defaultSettings.getValue("profiler.enabled", boolean.class);
+	profilerOverlay = (boolean) defaultSettings.getValue("profiler.overlay", boolean.class);
+	profilerCsvFile = ((String) defaultSettings.getValue("profiler.csvFile", String.class)).trim();
+	replayRecordFile = ((String) defaultSettings.getValue("replay.recordFile", String.class)).trim();
+	seed = (long) defaultSettings.getValue("simulation.seed", long.class);
+	timerWheelSlots = (int) defaultSettings.getValue("simulation.timerWheelSlots", int.class);
+	spriteCacheMaxMegabytes = (int) defaultSettings.getValue("render.spriteCache.maxMegabytes", int.class);
+	assetLoadThreads = (int) defaultSettings.getValue("assets.loadThreads", int.class);
+	backgroundSpriteWidth = (int) defaultSettings.getValue("background.sprite.width", int.class);
+	backgroundSpriteHeight = (int) defaultSettings.getValue("background.sprite.height", int.class);
+	backgroundTileSize = (int) defaultSettings.getValue("background.tileSize", int.class);
+	backgroundMaxCachedTiles = (int) defaultSettings.getValue("background.maxCachedTiles", int.class);
+	fishMovingTextVel = (float) defaultSettings.getValue("fish.movingText.vel", float.class);
+	fishMovingTextSize = (int) defaultSettings.getValue("fish.movingText.size", int.class);
+	fishDistanceOfRemoval = (int) defaultSettings.getValue("fish.distanceOfRemoval", int.class);
+	fishSpeed = (float) defaultSettings.getValue("fishFactory.fishSpeed", float.class);
+	spawnScreenMargin = (int) defaultSettings.getValue("fishFactory.screenMargin", int.class);
+	barracudaAdditionalMargin = (int) defaultSettings.getValue("fishFactory.barracuda.additionalMargin", int.class);
+	fishPoolMaxSize = (int) defaultSettings.getValue("fishFactory.pool.maxSize", int.class);
+	playerStartSize = (int) defaultSettings.getValue("player.startSize", int.class);
+	playerSpriteSize = (int) defaultSettings.getValue("player.spriteSize", int.class);
+	thrustSpeed = (double) defaultSettings.getValue("player.thrust.speed", double.class);
+	thrustDuration = (double) defaultSettings.getValue("player.thrust.duration", double.class);
+	thrustTimeIncrement = (float) defaultSettings.getValue("player.thrust.timeIncrement", float.class);
+	thrustSubSteps = (int) defaultSettings.getValue("player.thrust.subSteps", int.class);
+	playerMaxVelocity = (float) defaultSettings.getValue("player.maxVelocity", float.class);
+	playerMovingTextVel = (float) defaultSettings.getValue("player.movingText.vel", float.class);
+	playerMovingTextSize = (int) defaultSettings.getValue("player.movingText.size", int.class);
+	initialXpToNextLevel = (int) defaultSettings.getValue("player.xp.initialXpToNextLvl", int.class);
+	maxLevel = (int) defaultSettings.getValue("player.xp.maxLevel", int.class);
+	playerMouthSizeFactor = (float) defaultSettings.getValue("player.collider.mouthSizeFactor", float.class);
+	smallWidth = (int) defaultSettings.getValue("basicEnemy.small.width", int.class);
+	smallHeight = (int) defaultSettings.getValue("basicEnemy.small.height", int.class);
+	schoolSpawnRate = (float) defaultSettings.getValue("basicEnemy.school.spawnRate", float.class);
+	mediumWidth = (int) defaultSettings.getValue("basicEnemy.medium.width", int.class);
+	mediumHeight = (int) defaultSettings.getValue("basicEnemy.medium.height", int.class);
+	mediumMouthSize = (int) defaultSettings.getValue("basicEnemy.medium.mouthSize", int.class);
+	mediumSpawnRate = (float) defaultSettings.getValue("basicEnemy.medium.spawnRate", float.class);
+	largeWidth = (int) defaultSettings.getValue("basicEnemy.large.width", int.class);
+	largeHeight = (int) defaultSettings.getValue("basicEnemy.large.height", int.class);
+	largeSpawnRate = (float) defaultSettings.getValue("basicEnemy.large.spawnRate", float.class);
+	barracudaWaitTime = (float) defaultSettings.getValue("barracuda.wait.time", float.class);
+	barracudaChaseTime = (float) defaultSettings.getValue("barracuda.chase.time", float.class);
+	barracudaChaseVelocity = (int) defaultSettings.getValue("barracuda.chase.velocity", int.class);
+	barracudaWidth = (int) defaultSettings.getValue("barracuda.size.width", int.class);
+	barracudaHeight = (int) defaultSettings.getValue("barracuda.size.height", int.class);
+	barracudaColliderSizeX = (int) defaultSettings.getValue("barracuda.collider.size.x", int.class);
+	barracudaColliderSizeY = (int) defaultSettings.getValue("barracuda.collider.size.y", int.class);
+	barracudaColliderOffsetX = (int) defaultSettings.getValue("barracuda.collider.offset.x", int.class);
+	barracudaColliderOffsetY = (int) defaultSettings.getValue("barracuda.collider.offset.y", int.class);
+	barracudaMouthSize = (int) defaultSettings.getValue("barracuda.collider.mouth.size", int.class);
+	barracudaMouthOffsetX = (int) defaultSettings.getValue("barracuda.collider.mouth.offset.x", int.class);
+	barracudaMouthOffsetY = (int) defaultSettings.getValue("barracuda.collider.mouth.offset.y", int.class);
+	barracudaTailBiteXp = (int) defaultSettings.getValue("barracuda.xp.tailBite", int.class);
+	barracudaTailBiteTextOffsetY = (int) defaultSettings.getValue("barracuda.xp.tailBite.text.offset.y", int.class);
+	barracudaSpawnRate = (float) defaultSettings.getValue("barracuda.spawnRate", float.class);
+	broadphase = (String) defaultSettings.getValue("collision.broadphase", String.class);
+	collisionGridCellSize = (int) defaultSettings.getValue("collision.grid.cellSize", int.class);
+	fishStore = (boolean) defaultSettings.getValue("collision.fishStore", boolean.class);
+	parallelCollision = (boolean) defaultSettings.getValue("collision.parallel", boolean.class);
+	cameraMaxMovListSamples = (int) defaultSettings.getValue("camera.maxMovListSamples", int.class);
+	progressBarBorderThickness = (int) defaultSettings.getValue("hud.progressBar.borderThickness", int.class);
+	progressBarRoundness = (int) defaultSettings.getValue("hud.progressBar.roundness", int.class);
+	progressBarX = (int) defaultSettings.getValue("hud.progressBar.x", int.class);
+	progressBarY = (int) defaultSettings.getValue("hud.progressBar.y", int.class);
+	progressBarWidth = (int) defaultSettings.getValue("hud.progressBar.width", int.class);
+	progressBarHeight = (int) defaultSettings.getValue("hud.progressBar.height", int.class);
+	scoreTextSize = (int) defaultSettings.getValue("hud.score.textSize", int.class);
+	scoreIncrement = (int) defaultSettings.getValue("hud.score.increment", int.class);
+    }
+
+    /**
+     * load method reads the given settings file and returns a snapshot of it.
+     * @param file The path to the settings file.
+     * @return Settings, the parsed settings.
+     */
+    public static Settings load(String file) {
+	return new Settings(new PropertiesLoaderBorrowedCode(file));
+    }
+
+    /**
+     * loadDefault method reads the default settings file.
+     * @return Settings, the parsed settings.
+     */
+    public static Settings loadDefault() {
+	return load(DEFAULT_FILE);
+    }
+
+    public int getScreenWidth() {
+	return screenWidth;
+    }
+
+    public int getScreenHeight() {
+	return screenHeight;
+    }
+
+    public int getMapWidth() {
+	return mapWidth;
+    }
+
+    public int getMapHeight() {
+	return mapHeight;
+    }
+
+    public float getEnemySpawnRate() {
+	return enemySpawnRate;
+    }
+
+    public int getTickRate() {
+	return tickRate;
+    }
+
+    public int getMaxFps() {
+	return maxFps;
+    }
+
+    public String getRenderMode() {
+	return renderMode;
+    }
+
+    public boolean getVsync() {
+	return vsync;
+    }
+
+    public float getFrameTimeReportInterval() {
+	return frameTimeReportInterval;
+    }
+
+    public boolean getProfilerEnabled() {
+	return profilerEnabled;
+    }
+
+    public boolean getProfilerOverlay() {
+	return profilerOverlay;
+    }
+
+    public String getProfilerCsvFile() {
+	return profilerCsvFile;
+    }
+
+    public String getReplayRecordFile() {
+	return replayRecordFile;
+    }
+
+    public long getSeed() {
+	return seed;
+    }
+
+    public int getTimerWheelSlots() {
+	return timerWheelSlots;
+    }
+
+    public int getSpriteCacheMaxMegabytes() {
+	return spriteCacheMaxMegabytes;
+    }
+
+    public int getAssetLoadThreads() {
+	return assetLoadThreads;
+    }
+
+    public int getBackgroundSpriteWidth() {
+	return backgroundSpriteWidth;
+    }
+
+    public int getBackgroundSpriteHeight() {
+	return backgroundSpriteHeight;
+    }
+
+    public int getBackgroundTileSize() {
+	return backgroundTileSize;
+    }
+
+    public int getBackgroundMaxCachedTiles() {
+	return backgroundMaxCachedTiles;
+    }
+
+    public float getFishMovingTextVel() {
+	return fishMovingTextVel;
+    }
+
+    public int getFishMovingTextSize() {
+	return fishMovingTextSize;
+    }
+
+    public int getFishDistanceOfRemoval() {
+	return fishDistanceOfRemoval;
+    }
+
+    public float getFishSpeed() {
+	return fishSpeed;
+    }
+
+    public int getSpawnScreenMargin() {
+	return spawnScreenMargin;
+    }
+
+    public int getBarracudaAdditionalMargin() {
+	return barracudaAdditionalMargin;
+    }
+
+    public int getFishPoolMaxSize() {
+	return fishPoolMaxSize;
+    }
+
+    public int getPlayerStartSize() {
+	return playerStartSize;
+    }
+
+    public int getPlayerSpriteSize() {
+	return playerSpriteSize;
+    }
+
+    public double getThrustSpeed() {
+	return thrustSpeed;
+    }
+
+    public double getThrustDuration() {
+	return thrustDuration;
+    }
+
+    public float getThrustTimeIncrement() {
+	return thrustTimeIncrement;
+    }
+
+    public int getThrustSubSteps() {
+	return thrustSubSteps;
+    }
+
+    public float getPlayerMaxVelocity() {
+	return playerMaxVelocity;
+    }
+
+    public float getPlayerMovingTextVel() {
+	return playerMovingTextVel;
+    }
+
+    public int getPlayerMovingTextSize() {
+	return playerMovingTextSize;
+    }
+
+    public int getInitialXpToNextLevel() {
+	return initialXpToNextLevel;
+    }
+
+    public int getMaxLevel() {
+	return maxLevel;
+    }
+
+    public float getPlayerMouthSizeFactor() {
+	return playerMouthSizeFactor;
+    }
+
+    public int getSmallWidth() {
+	return smallWidth;
+    }
+
+    public int getSmallHeight() {
+	return smallHeight;
+    }
+
+    public float getSchoolSpawnRate() {
+	return schoolSpawnRate;
+    }
+
+    public int getMediumWidth() {
+	return mediumWidth;
+    }
+
+    public int getMediumHeight() {
+	return mediumHeight;
+    }
+
+    public int getMediumMouthSize() {
+	return mediumMouthSize;
+    }
+
+    public float getMediumSpawnRate() {
+	return mediumSpawnRate;
+    }
+
+    public int getLargeWidth() {
+	return largeWidth;
+    }
+
+    public int getLargeHeight() {
+	return largeHeight;
+    }
+
+    public float getLargeSpawnRate() {
+	return largeSpawnRate;
+    }
+
+    public float getBarracudaWaitTime() {
+	return barracudaWaitTime;
+    }
+
+    public float getBarracudaChaseTime() {
+	return barracudaChaseTime;
+    }
+
+    public int getBarracudaChaseVelocity() {
+	return barracudaChaseVelocity;
+    }
+
+    public int getBarracudaWidth() {
+	return barracudaWidth;
+    }
+
+    public int getBarracudaHeight() {
+	return barracudaHeight;
+    }
+
+    public int getBarracudaColliderSizeX() {
+	return barracudaColliderSizeX;
+    }
+
+    public int getBarracudaColliderSizeY() {
+	return barracudaColliderSizeY;
+    }
+
+    public int getBarracudaColliderOffsetX() {
+	return barracudaColliderOffsetX;
+    }
+
+    public int getBarracudaColliderOffsetY() {
+	return barracudaColliderOffsetY;
+    }
+
+    public int getBarracudaMouthSize() {
+	return barracudaMouthSize;
+    }
+
+    public int getBarracudaMouthOffsetX() {
+	return barracudaMouthOffsetX;
+    }
+
+    public int getBarracudaMouthOffsetY() {
+	return barracudaMouthOffsetY;
+    }
+
+    public int getBarracudaTailBiteXp() {
+	return barracudaTailBiteXp;
+    }
+
+    public int getBarracudaTailBiteTextOffsetY() {
+	return barracudaTailBiteTextOffsetY;
+    }
+
+    public float getBarracudaSpawnRate() {
+	return barracudaSpawnRate;
+    }
+
+    public String getBroadphase() {
+	return broadphase;
+    }
+
+    public int getCollisionGridCellSize() {
+	return collisionGridCellSize;
+    }
+
+    public boolean getFishStore() {
+	return fishStore;
+    }
+
+    public boolean getParallelCollision() {
+	return parallelCollision;
+    }
+
+    public int getCameraMaxMovListSamples() {
+	return cameraMaxMovListSamples;
+    }
+
+    public int getProgressBarBorderThickness() {
+	return progressBarBorderThickness;
+    }
+
+    public int getProgressBarRoundness() {
+	return progressBarRoundness;
+    }
+
+    public int getProgressBarX() {
+	return progressBarX;
+    }
+
+    public int getProgressBarY() {
+	return progressBarY;
+    }
+
+    public int getProgressBarWidth() {
+	return progressBarWidth;
+    }
+
+    public int getProgressBarHeight() {
+	return progressBarHeight;
+    }
+
+    public int getScoreTextSize() {
+	return scoreTextSize;
+    }
+
+    public int getScoreIncrement() {
+	return scoreIncrement;
+    }
+}
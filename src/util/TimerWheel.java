@@ -0,0 +1,201 @@
+package util;
+
+/**
+ * The TimerWheel class runs delayed and periodic callbacks on the simulation thread. It is a hashed timing wheel: time is
+ * measured in game ticks, and every timer is kept in the slot of the tick it is due, modulo the number of slots. Each
+ * call to advance moves the wheel one tick forward and only looks at the timers in one slot, so scheduling, cancelling
+ * and advancing stay cheap no matter how many timers are pending.
+ * Timers that are due on the same tick run in the order they were scheduled, which makes the wheel deterministic.
+ * The wheel is not thread safe; it should only be used from the thread that calls advance.
+ */
+public class TimerWheel {
+
+    private final int ticksPerSecond;
+    private final Timer[] slotHeads;
+    private final Timer[] slotTails;
+    private final int mask;
+    private long currentTick = 0;
+    private int pendingCount = 0;
+
+    /**
+     * Constructor that creates an empty wheel.
+     * @param ticksPerSecond The number of times advance is called per second, used to convert seconds to ticks.
+     * @param slots The number of slots. Rounded up to a power of two. Delays longer than this take more than one turn
+     * of the wheel, which only costs a comparison per turn.
+     */
+    public TimerWheel(int ticksPerSecond, int slots) {
+        if (ticksPerSecond <= 0) throw new IllegalArgumentException("ticksPerSecond must be positive");
+        this.ticksPerSecond = ticksPerSecond;
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        slotHeads = new Timer[size];
+        slotTails = new Timer[size];
+        mask = size - 1;
+    }
+
+    /**
+     * schedule method runs a task once, after the given number of ticks.
+     * @param task The task to run.
+     * @param delayTicks The delay in ticks. Delays below one run the task on the next call to advance.
+     * @return Timer, a handle that can be used to cancel the task.
+     */
+    public Timer schedule(Runnable task, long delayTicks) {
+        return scheduleAtFixedRate(task, delayTicks, 0);
+    }
+
+    /**
+     * scheduleAtFixedRate method runs a task repeatedly until it is cancelled.
+     * @param task The task to run.
+     * @param initialDelayTicks The delay before the first run, in ticks.
+     * @param periodTicks The number of ticks between runs. 0 runs the task only once.
+     * @return Timer, a handle that can be used to cancel the task.
+     */
+    public Timer scheduleAtFixedRate(Runnable task, long initialDelayTicks, long periodTicks) {
+        if (periodTicks < 0) throw new IllegalArgumentException("periodTicks must not be negative");
+        Timer timer = new Timer(task, periodTicks);
+        insert(timer, currentTick + Math.max(1, initialDelayTicks));
+        pendingCount++;
+        return timer;
+    }
+
+    /**
+     * secondsToTicks method converts a duration in seconds to the nearest number of ticks.
+     * @param seconds The duration in seconds.
+     * @return long, the duration in ticks, at least 1.
+     */
+    public long secondsToTicks(double seconds) {
+        return Math.max(1, Math.round(seconds * ticksPerSecond));
+    }
+
+    /**
+     * advance method moves the wheel forward by one tick and runs every timer that is due. Timers scheduled or cancelled
+     * by a running task take effect immediately, but a task scheduled from within advance never runs in the same call.
+     */
+    public void advance() {
+        currentTick++;
+        int slot = (int) (currentTick & mask);
+
+        // Detach the slot, so that timers added to it while the tasks run are left for its next turn
+        Timer timer = slotHeads[slot];
+        slotHeads[slot] = null;
+        slotTails[slot] = null;
+        for (Timer detached = timer; detached != null; detached = detached.next) {
+            detached.slot = -1;
+        }
+
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.next = null;
+            timer.previous = null;
+
+            if (timer.cancelled) {
+                // Already counted as removed by cancel
+            } else if (timer.deadline > currentTick) {
+                append(slot, timer); // Due in a later turn of the wheel
+            } else {
+                timer.task.run();
+                if (timer.cancelled) {
+                    // Cancelled by its own task
+                } else if (timer.period > 0) {
+                    insert(timer, currentTick + timer.period);
+                } else {
+                    timer.cancelled = true;
+                    pendingCount--;
+                }
+            }
+            timer = next;
+        }
+    }
+
+    /**
+     * clear method cancels every pending timer.
+     */
+    public void clear() {
+        for (int slot = 0; slot < slotHeads.length; slot++) {
+            for (Timer timer = slotHeads[slot]; timer != null; timer = timer.next) {
+                timer.cancelled = true;
+                timer.slot = -1;
+            }
+            slotHeads[slot] = null;
+            slotTails[slot] = null;
+        }
+        pendingCount = 0;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    /**
+     * getPendingCount returns the number of timers that are waiting to run.
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    private void insert(Timer timer, long deadline) {
+        timer.deadline = deadline;
+        append((int) (deadline & mask), timer);
+    }
+
+    private void append(int slot, Timer timer) {
+        timer.slot = slot;
+        timer.previous = slotTails[slot];
+        timer.next = null;
+        if (slotTails[slot] == null) {
+            slotHeads[slot] = timer;
+        } else {
+            slotTails[slot].next = timer;
+        }
+        slotTails[slot] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        int slot = timer.slot;
+        if (timer.previous == null) slotHeads[slot] = timer.next; else timer.previous.next = timer.next;
+        if (timer.next == null) slotTails[slot] = timer.previous; else timer.next.previous = timer.previous;
+        timer.next = null;
+        timer.previous = null;
+        timer.slot = -1;
+    }
+
+    /**
+     * A Timer is a handle to a scheduled task. It is kept in a doubly linked list per slot, so that it can be cancelled
+     * in constant time.
+     */
+    public final class Timer {
+
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+        private boolean cancelled = false;
+        private int slot = -1; // -1 while the timer is not in a slot, e.g. while its slot is being processed
+        private Timer next;
+        private Timer previous;
+
+        private Timer(Runnable task, long period) {
+            this.task = task;
+            this.period = period;
+        }
+
+        /**
+         * cancel method stops the timer. Has no effect if the timer has already run or been cancelled.
+         */
+        public void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            pendingCount--;
+            if (slot >= 0) unlink(this);
+        }
+
+        /**
+         * isActive method returns whether the timer will still run.
+         */
+        public boolean isActive() {
+            return !cancelled;
+        }
+    }
+}
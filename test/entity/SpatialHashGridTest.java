@@ -0,0 +1,217 @@
+package entity;
+
+import game.GameWorld;
+import game.ScriptedInput;
+import media.AudioLoader;
+import media.AudioManagerBorrowedCode;
+import media.ImageManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.Point2D;
+import util.Settings;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for SpatialHashGrid: removing cells from the middle of a probe run and across the end of the table, which shifts
+ * the following cells back, and queries after fish have moved between cells. The colliding cells are found with the hash
+ * of the grid, so that they share a home slot while the table has its initial capacity.
+ */
+class SpatialHashGridTest {
+
+    private static final int CELL_SIZE = 10;
+    private static final int MASK = SpatialHashGrid.INITIAL_CAPACITY - 1;
+
+    private static GameWorld world;
+
+    private final SpatialHashGrid grid = new SpatialHashGrid(CELL_SIZE);
+    private final List<Fish> result = new ArrayList<>();
+
+    @BeforeAll
+    static void createWorld() {
+        System.setProperty("java.awt.headless", "true");
+        Settings settings = Settings.loadDefault();
+        AudioLoader audioLoader = new AudioLoader(new AudioManagerBorrowedCode());
+        audioLoader.setMuted(true);
+        world = new GameWorld(settings, new ImageManager(settings), audioLoader,
+                              new ScriptedInput(settings.getScreenWidth(), settings.getScreenHeight(), 1, 0), 1);
+    }
+
+    private static Fish newFish() {
+        return new Fish(new Point2D(0, 0), new Point2D(CELL_SIZE, CELL_SIZE), 1, false, world.getFishFactory(), world);
+    }
+
+    private static int homeSlot(int cx, int cy) {
+        return SpatialHashGrid.hash(SpatialHashGrid.key(cx, cy)) & MASK;
+    }
+
+    /**
+     * cellsWithHome finds cells on the row cy = 0 whose home slot is the given slot.
+     */
+    private static int[] cellsWithHome(int slot, int count) {
+        int[] found = new int[count];
+        int n = 0;
+        for (int cx = 0; n < count; cx++) {
+            if (homeSlot(cx, 0) == slot) found[n++] = cx;
+        }
+        return found;
+    }
+
+    private static Rectangle cell(int cx, int cy) {
+        return new Rectangle(cx * CELL_SIZE, cy * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+    }
+
+    private Fish insert(int cx) {
+        Fish fish = newFish();
+        grid.update(fish, cell(cx, 0));
+        return fish;
+    }
+
+    private List<Fish> query(Rectangle bounds) {
+        grid.query(bounds, result);
+        return new ArrayList<>(result);
+    }
+
+    @Test
+    void removeFromTheMiddleOfAProbeRun() {
+        final int home = 10;
+        int[] sameHome = cellsWithHome(home, 3);
+        int nextHome = cellsWithHome(home + 1, 1)[0];
+        int laterHome = cellsWithHome(home + 4, 1)[0];
+
+        // Slots 10 to 14: two cells from home 10, one from 11, one more from 10, and one at its own home slot 14
+        Fish first = insert(sameHome[0]);
+        Fish middle = insert(sameHome[1]);
+        Fish shifted = insert(nextHome);
+        Fish last = insert(sameHome[2]);
+        Fish atHome = insert(laterHome);
+
+        grid.remove(middle);
+
+        assertEquals(List.of(), query(cell(sameHome[1], 0)));
+        assertEquals(List.of(first), query(cell(sameHome[0], 0)));
+        assertEquals(List.of(shifted), query(cell(nextHome, 0)));
+        assertEquals(List.of(last), query(cell(sameHome[2], 0)));
+        assertEquals(List.of(atHome), query(cell(laterHome, 0)));
+
+        // The gaps left behind can be used again
+        Fish again = insert(sameHome[1]);
+        grid.remove(first);
+        assertEquals(List.of(again), query(cell(sameHome[1], 0)));
+        assertEquals(List.of(shifted), query(cell(nextHome, 0)));
+        assertEquals(List.of(last), query(cell(sameHome[2], 0)));
+        assertEquals(List.of(atHome), query(cell(laterHome, 0)));
+    }
+
+    @Test
+    void removeAcrossTheEndOfTheTable() {
+        int[] lastSlot = cellsWithHome(MASK, 2);
+        int firstSlot = cellsWithHome(0, 1)[0];
+        int secondSlot = cellsWithHome(1, 1)[0];
+
+        // Slots 255, 0, 1 and 2: two cells from home 255 that wrap around, then cells from home 0 and 1
+        Fish wrapped = insert(lastSlot[0]);
+        Fish wrapping = insert(lastSlot[1]);
+        Fish fromZero = insert(firstSlot);
+        Fish fromOne = insert(secondSlot);
+
+        grid.remove(wrapped);
+
+        assertEquals(List.of(), query(cell(lastSlot[0], 0)));
+        assertEquals(List.of(wrapping), query(cell(lastSlot[1], 0)));
+        assertEquals(List.of(fromZero), query(cell(firstSlot, 0)));
+        assertEquals(List.of(fromOne), query(cell(secondSlot, 0)));
+
+        grid.remove(fromZero);
+        assertEquals(List.of(wrapping), query(cell(lastSlot[1], 0)));
+        assertEquals(List.of(fromOne), query(cell(secondSlot, 0)));
+
+        grid.remove(wrapping);
+        grid.remove(fromOne);
+        assertEquals(List.of(), query(new Rectangle(0, 0, CELL_SIZE * (lastSlot[1] + 1), CELL_SIZE)));
+    }
+
+    @Test
+    void fishThatMovesIsOnlyFoundInItsNewCells() {
+        Fish fish = newFish();
+        Fish neighbour = newFish();
+        grid.update(fish, cell(0, 0));
+        grid.update(neighbour, cell(1, 0));
+
+        grid.update(fish, new Rectangle(-CELL_SIZE - 5, 2 * CELL_SIZE + 5, CELL_SIZE, CELL_SIZE)); // Covers 4 cells
+        assertEquals(List.of(), query(cell(0, 0)));
+        assertEquals(List.of(neighbour), query(cell(1, 0)));
+        for (int cx = -2; cx <= -1; cx++) {
+            for (int cy = 2; cy <= 3; cy++) {
+                assertEquals(List.of(fish), query(cell(cx, cy)));
+            }
+        }
+        assertEquals(List.of(fish, neighbour), query(new Rectangle(-2 * CELL_SIZE, 0, 4 * CELL_SIZE, 4 * CELL_SIZE)));
+
+        grid.update(fish, cell(1, 0)); // Into the cell of the neighbour
+        assertEquals(List.of(), query(new Rectangle(-2 * CELL_SIZE, 2 * CELL_SIZE, 2 * CELL_SIZE, 2 * CELL_SIZE)));
+        assertEquals(List.of(fish, neighbour), query(cell(1, 0)));
+
+        grid.remove(fish);
+        assertEquals(List.of(neighbour), query(cell(1, 0)));
+    }
+
+    @Test
+    void queriesMatchTheBoundsOfEveryFishAfterRandomMoves() {
+        final int fishCount = 150; // Enough cells to grow the table a few times
+        final int worldCells = 60;
+        Random random = new Random(1);
+        List<Fish> fishes = new ArrayList<>();
+        Map<Fish, Rectangle> bounds = new HashMap<>();
+        for (int i = 0; i < fishCount; i++) {
+            fishes.add(newFish());
+        }
+
+        for (int step = 0; step < 3000; step++) {
+            Fish fish = fishes.get(random.nextInt(fishCount));
+            if (bounds.containsKey(fish) && random.nextInt(5) == 0) {
+                grid.remove(fish);
+                bounds.remove(fish);
+            } else {
+                Rectangle moved = randomBounds(random, worldCells);
+                grid.update(fish, moved);
+                bounds.put(fish, moved);
+            }
+
+            Rectangle area = randomBounds(random, worldCells);
+            List<Fish> expected = new ArrayList<>();
+            for (Fish other : fishes) { // In spawn order
+                Rectangle r = bounds.get(other);
+                if (r != null && sharesACell(r, area)) expected.add(other);
+            }
+            assertEquals(expected, query(area), "Query at step " + step);
+        }
+
+        for (Fish fish : fishes) {
+            grid.remove(fish);
+        }
+        assertTrue(query(new Rectangle(-worldCells * CELL_SIZE, -worldCells * CELL_SIZE,
+                                       2 * worldCells * CELL_SIZE, 2 * worldCells * CELL_SIZE)).isEmpty());
+    }
+
+    private static Rectangle randomBounds(Random random, int worldCells) {
+        int x = random.nextInt(2 * worldCells * CELL_SIZE) - worldCells * CELL_SIZE; // Negative cells too
+        int y = random.nextInt(2 * worldCells * CELL_SIZE) - worldCells * CELL_SIZE;
+        return new Rectangle(x, y, 1 + random.nextInt(2 * CELL_SIZE), 1 + random.nextInt(2 * CELL_SIZE));
+    }
+
+    private static boolean sharesACell(Rectangle a, Rectangle b) {
+        return Math.floorDiv(a.x, CELL_SIZE) <= Math.floorDiv(b.x + b.width - 1, CELL_SIZE)
+                && Math.floorDiv(b.x, CELL_SIZE) <= Math.floorDiv(a.x + a.width - 1, CELL_SIZE)
+                && Math.floorDiv(a.y, CELL_SIZE) <= Math.floorDiv(b.y + b.height - 1, CELL_SIZE)
+                && Math.floorDiv(b.y, CELL_SIZE) <= Math.floorDiv(a.y + a.height - 1, CELL_SIZE);
+    }
+}
@@ -0,0 +1,117 @@
+package media;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for CommandQueue: a full queue rejects commands, the queue keeps working over many laps of the ring, and
+ * commands from several producer threads all reach the consumer exactly once, in the order each producer added them.
+ */
+class CommandQueueTest {
+
+    private static final int CAPACITY = 8;
+
+    @Test
+    void emptyQueueReturnsMinusOne() {
+        CommandQueue queue = new CommandQueue(CAPACITY);
+        assertEquals(-1, queue.poll());
+    }
+
+    @Test
+    void fullQueueRejectsOffers() {
+        CommandQueue queue = new CommandQueue(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(CAPACITY));
+
+        assertEquals(0, queue.poll());
+        assertTrue(queue.offer(CAPACITY)); // The freed slot can be used again
+        assertFalse(queue.offer(CAPACITY + 1));
+        for (int i = 1; i <= CAPACITY; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertEquals(-1, queue.poll());
+    }
+
+    @Test
+    void keepsOrderOverManyLaps() {
+        CommandQueue queue = new CommandQueue(CAPACITY);
+        int next = 0;
+        int expected = 0;
+        for (int lap = 0; lap < 1000; lap++) {
+            for (int i = 0; i < CAPACITY / 2 + lap % (CAPACITY / 2); i++) {
+                assertTrue(queue.offer(next++));
+            }
+            for (int command = queue.poll(); command >= 0; command = queue.poll()) {
+                assertEquals(expected++, command);
+            }
+        }
+        assertEquals(next, expected);
+    }
+
+    @Test
+    void concurrentProducersLoseAndDuplicateNothing() throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 20_000;
+        final int producerShift = 24; // A command is the producer in the high bits and its sequence in the low bits
+        CommandQueue queue = new CommandQueue(CAPACITY); // Small, so that the producers often find it full
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int sequence = 0; sequence < perProducer; sequence++) {
+                    while (!queue.offer(producer << producerShift | sequence)) {
+                        Thread.yield(); // Full; let the consumer catch up
+                    }
+                }
+            }, "Producer" + p);
+            thread.setDaemon(true); // A failed test must not leave the fork waiting for producers stuck on a full queue
+            thread.start();
+            threads.add(thread);
+        }
+
+        int[] nextSequence = new int[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30); // A lost command would leave us waiting
+        start.countDown();
+        while (received < producers * perProducer) {
+            int command = queue.poll();
+            if (command < 0) {
+                assertTrue(System.nanoTime() < deadline, "Only " + received + " commands arrived");
+                Thread.yield();
+                continue;
+            }
+            int producer = command >>> producerShift;
+            int sequence = command & ((1 << producerShift) - 1);
+            // A lost command shows up as a gap, and a duplicate as a repeat, in the sequence of its producer
+            assertEquals(nextSequence[producer], sequence, "Command out of order from producer " + producer);
+            nextSequence[producer]++;
+            received++;
+        }
+
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            assertFalse(thread.isAlive());
+        }
+        assertEquals(-1, queue.poll(), "More commands than were offered");
+        for (int p = 0; p < producers; p++) {
+            assertEquals(perProducer, nextSequence[p]);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for TimerWheel: deadlines that wrap around the wheel, cancelling while a slot is being advanced, and fixed-rate
+ * rescheduling. The wheels are small, so that most delays take more than one turn.
+ */
+class TimerWheelTest {
+
+    private static final int TICK_RATE = 60;
+    private static final int SLOTS = 8;
+
+    private final TimerWheel wheel = new TimerWheel(TICK_RATE, SLOTS);
+    private final List<Long> runs = new ArrayList<>(); // The ticks a task ran on
+
+    private Runnable recordTick() {
+        return () -> runs.add(wheel.getCurrentTick());
+    }
+
+    private void advance(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            wheel.advance();
+        }
+    }
+
+    @Test
+    void deadlineThatWrapsRunsOnlyOnItsTick() {
+        wheel.schedule(recordTick(), 3 * SLOTS + 2); // Passes its slot twice before it is due
+
+        advance(3 * SLOTS + 1);
+        assertTrue(runs.isEmpty());
+        advance(1);
+        assertEquals(List.of(3L * SLOTS + 2), runs);
+        advance(4 * SLOTS);
+        assertEquals(1, runs.size());
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    @Test
+    void delaysAroundTheWheelSizeRunOnTime() {
+        List<Long> expected = new ArrayList<>();
+        for (long delay = 1; delay <= 5 * SLOTS; delay++) {
+            final long due = delay;
+            wheel.schedule(() -> assertEquals(due, wheel.getCurrentTick()), delay);
+            wheel.schedule(recordTick(), delay);
+            expected.add(delay);
+        }
+
+        advance(6 * SLOTS);
+        assertEquals(expected, runs);
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    @Test
+    void timersDueOnTheSameTickRunInScheduleOrder() {
+        List<Integer> order = new ArrayList<>();
+        wheel.schedule(() -> order.add(1), SLOTS + 1); // Same slot and tick, added while another turn is pending
+        wheel.schedule(() -> order.add(2), 1);
+        wheel.schedule(() -> order.add(3), SLOTS + 1);
+
+        advance(SLOTS + 1);
+        assertEquals(List.of(2, 1, 3), order);
+    }
+
+    @Test
+    void cancelBeforeItIsDue() {
+        TimerWheel.Timer timer = wheel.schedule(recordTick(), 2 * SLOTS);
+        advance(SLOTS);
+        timer.cancel();
+
+        assertFalse(timer.isActive());
+        assertEquals(0, wheel.getPendingCount());
+        advance(2 * SLOTS);
+        assertTrue(runs.isEmpty());
+    }
+
+    @Test
+    void cancelTimerLaterInTheSlotBeingAdvanced() {
+        TimerWheel.Timer[] later = new TimerWheel.Timer[1];
+        wheel.schedule(() -> later[0].cancel(), 1);
+        later[0] = wheel.schedule(recordTick(), 1); // Due on the same tick, after the task that cancels it
+
+        advance(1);
+        assertTrue(runs.isEmpty());
+        assertFalse(later[0].isActive());
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    @Test
+    void cancelTimerOfALaterTurnInTheSlotBeingAdvanced() {
+        TimerWheel.Timer[] nextTurn = new TimerWheel.Timer[1];
+        wheel.schedule(() -> nextTurn[0].cancel(), 1);
+        nextTurn[0] = wheel.schedule(recordTick(), SLOTS + 1); // Same slot, still detached when it is cancelled
+
+        advance(3 * SLOTS);
+        assertTrue(runs.isEmpty());
+        assertEquals(0, wheel.getPendingCount());
+
+        // The slot is still usable afterwards
+        wheel.schedule(recordTick(), SLOTS);
+        advance(SLOTS);
+        assertEquals(List.of(4L * SLOTS), runs);
+    }
+
+    @Test
+    void cancelTwiceOrAfterRunningHasNoEffect() {
+        TimerWheel.Timer timer = wheel.schedule(recordTick(), 1);
+        TimerWheel.Timer other = wheel.schedule(recordTick(), 5);
+        advance(1);
+        timer.cancel();
+        other.cancel();
+        other.cancel();
+
+        assertEquals(0, wheel.getPendingCount());
+        advance(SLOTS);
+        assertEquals(List.of(1L), runs);
+    }
+
+    @Test
+    void taskScheduledFromATaskDoesNotRunInTheSameAdvance() {
+        wheel.schedule(() -> wheel.schedule(recordTick(), 0), 1);
+
+        advance(1);
+        assertTrue(runs.isEmpty());
+        advance(1);
+        assertEquals(List.of(2L), runs);
+    }
+
+    @Test
+    void fixedRateRunsEveryPeriod() {
+        wheel.scheduleAtFixedRate(recordTick(), 2, 3);
+
+        advance(14);
+        assertEquals(List.of(2L, 5L, 8L, 11L, 14L), runs);
+        assertEquals(1, wheel.getPendingCount());
+    }
+
+    @Test
+    void fixedRateWithAPeriodLongerThanTheWheel() {
+        wheel.scheduleAtFixedRate(recordTick(), SLOTS + 3, 2 * SLOTS + 1);
+
+        advance(6 * SLOTS);
+        assertEquals(List.of(SLOTS + 3L, 3L * SLOTS + 4, 5L * SLOTS + 5), runs);
+    }
+
+    @Test
+    void fixedRateTimerThatCancelsItselfStops() {
+        TimerWheel.Timer[] timer = new TimerWheel.Timer[1];
+        timer[0] = wheel.scheduleAtFixedRate(() -> {
+            runs.add(wheel.getCurrentTick());
+            if (runs.size() == 3) timer[0].cancel();
+        }, 1, SLOTS);
+
+        advance(6 * SLOTS);
+        assertEquals(List.of(1L, SLOTS + 1L, 2L * SLOTS + 1), runs);
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    @Test
+    void clearCancelsEveryTimer() {
+        TimerWheel.Timer once = wheel.schedule(recordTick(), 3);
+        TimerWheel.Timer repeating = wheel.scheduleAtFixedRate(recordTick(), SLOTS + 5, 2);
+        wheel.clear();
+
+        assertFalse(once.isActive());
+        assertFalse(repeating.isActive());
+        assertEquals(0, wheel.getPendingCount());
+        advance(3 * SLOTS);
+        assertTrue(runs.isEmpty());
+    }
+}